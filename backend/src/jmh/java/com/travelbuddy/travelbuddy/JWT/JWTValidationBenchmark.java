@@ -0,0 +1,133 @@
+package com.travelbuddy.travelbuddy.JWT;
+
+import com.travelbuddy.travelbuddy.model.SigningKey;
+import com.travelbuddy.travelbuddy.model.User;
+import com.travelbuddy.travelbuddy.repository.SigningKeyRepository;
+import com.travelbuddy.travelbuddy.service.UserService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of authenticating one request in {@link JWTValidation}:
+ * <ul>
+ *   <li>{@code before}: the filter as it was before the principal cache, building a new JJWT
+ *       parser for every request, verifying the signature and looking the user up,</li>
+ *   <li>{@code cacheMiss}: the current filter for a token it has not seen, with the prebuilt parser,</li>
+ *   <li>{@code cacheHit}: the current filter for a token seen before.</li>
+ * </ul>
+ * The user lookup is a stub, so {@code before} and {@code cacheMiss} leave out the Postgres
+ * round trip that a real lookup costs on top; {@code cacheHit} has none.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTValidationBenchmark {
+
+    private static final FilterChain CHAIN = (request, response) -> { };
+
+    private Key key;
+    private String token;
+    private UserService userService;
+    private JWTValidation cached;
+    private JWTValidation uncached;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        SigningKeyRepository signingKeyRepository = mock(SigningKeyRepository.class);
+        when(signingKeyRepository.findByCreatedAtAfterOrderByCreatedAtDesc(any())).thenReturn(List.of(SigningKey.builder()
+                .kid("benchmark")
+                .secret(Base64.getEncoder().encodeToString(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded()))
+                .createdAt(Instant.now())
+                .build()));
+        KeyRing keyRing = new KeyRing(signingKeyRepository, Duration.ofDays(1), Duration.ofHours(2));
+        keyRing.init();
+        key = keyRing.signingKey().key();
+        JWTUtil jwtUtil = new JWTUtil(keyRing);
+
+        User user = User.builder().id(1L).username("benchmark").email("benchmark@example.com")
+                .password("$2a$10$hash").role("USER").build();
+        userService = mock(UserService.class);
+        when(userService.findByUsername(anyString())).thenReturn(Optional.of(user));
+        token = jwtUtil.generateToken(user);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        cached = new JWTValidation(jwtUtil, userService,
+                new PrincipalCache(10_000, Duration.ofMinutes(5), meterRegistry));
+        // Holds no entries, so every request verifies the token and loads the user
+        uncached = new JWTValidation(jwtUtil, userService,
+                new PrincipalCache(0, Duration.ofMinutes(5), meterRegistry));
+
+        request = new MockHttpServletRequest("GET", "/api/trips");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    @Benchmark
+    public Object before() {
+        // JWTUtil.validateToken and JWTValidation.doFilterInternal as they were
+        Jws<Claims> claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        User user = userService.findByUsername(claims.getBody().getSubject()).orElse(null);
+        if (user != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(user.getUsername(), user.getPassword(), Collections.emptyList()));
+        }
+        return authenticate();
+    }
+
+    @Benchmark
+    public Object cacheMiss() throws Exception {
+        uncached.doFilter(request, new MockHttpServletResponse(), CHAIN);
+        return authenticate();
+    }
+
+    @Benchmark
+    public Object cacheHit() throws Exception {
+        cached.doFilter(request, new MockHttpServletResponse(), CHAIN);
+        return authenticate();
+    }
+
+    // Returns the authentication set by the filter and clears it for the next request
+    private static Object authenticate() {
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
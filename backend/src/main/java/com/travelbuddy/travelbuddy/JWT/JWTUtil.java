@@ -1,7 +1,6 @@
 package com.travelbuddy.travelbuddy.JWT;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
 
 import java.security.Key;
 import java.util.Date;
@@ -13,29 +12,52 @@ import com.travelbuddy.travelbuddy.model.User;
 // This class is used to generate and validate JWT tokens for the user.
 @Component
 public class JWTUtil {
-    private final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    private final KeyRing keyRing;
+    // The parser is immutable and thread-safe, so it is built once instead of on every request
+    private final JwtParser parser;
+
+    public JWTUtil(KeyRing keyRing) {
+        this.keyRing = keyRing;
+        // The verification key is looked up in the key ring by the token's 'kid' header
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = keyRing.verificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new JwtException("Unknown signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
 
     public String generateToken(User user) {
+        KeyRing.ActiveKey signingKey = keyRing.signingKey();
         // Create a JWT token with the user's details
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid()) // Tell verifiers which key signed the token
                 .setSubject(user.getUsername()) // Set the username as the subject
                 .claim("id", user.getId()) // Add the user's ID as a claim
                 .claim("role", user.getRole()) // Add the user's role as a claim
                 .setIssuedAt(new Date()) // Set the token's issue date
                 .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60)) // Set the token's expiration (1 hour)
-                .signWith(key) // Sign the token with the secret key
+                .signWith(signingKey.key()) // Sign the token with the current shared key
                 .compact(); // Build the token
     }
 
     // This method is used to validate the JWT token, i.e. check if the token is valid and not expired.
     public String validateToken(String token) {
-        try {
-            Jws<Claims> claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
+        Claims claims = validateClaims(token);
+        return claims == null ? null : claims.getSubject();
+    }
 
-            return claims.getBody().getSubject();
+    // Same as validateToken, but returns all claims (subject, expiration, ...) or null if the token is invalid.
+    public Claims validateClaims(String token) {
+        try {
+            Jws<Claims> claims = parser.parseClaimsJws(token);
+            return claims.getBody();
         } catch (Exception e) {
             return null;
         }
@@ -1,5 +1,6 @@
 package com.travelbuddy.travelbuddy.JWT;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -24,10 +25,12 @@ public class JWTValidation extends OncePerRequestFilter {
 
     private final JWTUtil jwtUtil;
     private final UserService userService;
+    private final PrincipalCache principalCache;
 
-    public JWTValidation(JWTUtil jwtUtil, UserService userService) {
+    public JWTValidation(JWTUtil jwtUtil, UserService userService, PrincipalCache principalCache) {
         this.jwtUtil = jwtUtil;
         this.userService = userService;
+        this.principalCache = principalCache;
     }
 
     //doFilterInternal is the method that is used to validate the JWT token for the user.
@@ -41,11 +44,14 @@ public class JWTValidation extends OncePerRequestFilter {
             String token = authHeader.substring(7); // remove "Bearer " prefix
 
             try {
-                String username = jwtUtil.validateToken(token); // validate + extract subject
-                User user = userService.findByUsername(username).orElse(null);
-                if (user != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // A token seen before is answered from the cache: no signature check, no DB query
+                PrincipalCache.CachedPrincipal principal = principalCache.get(token);
+                if (principal == null) {
+                    principal = resolvePrincipal(token);
+                }
+                if (principal != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                     // Create an authentication token and set it into the security context
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user.getUsername(), user.getPassword(), Collections.emptyList());
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(principal.username(), principal.credentials(), Collections.emptyList());
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             } catch (JwtException e) {
@@ -59,4 +65,21 @@ public class JWTValidation extends OncePerRequestFilter {
         // filters are defined in the SecurityConfig class.
         filterChain.doFilter(request, response);
     }
+
+    // Verifies the token, loads its user and caches the result for a short while (see PrincipalCache).
+    private PrincipalCache.CachedPrincipal resolvePrincipal(String token) {
+        Claims claims = jwtUtil.validateClaims(token); // validate + extract subject
+        if (claims == null || claims.getExpiration() == null) {
+            return null;
+        }
+        long stamp = principalCache.stamp();
+        User user = userService.findByUsername(claims.getSubject()).orElse(null);
+        if (user == null) {
+            return null;
+        }
+        PrincipalCache.CachedPrincipal principal = new PrincipalCache.CachedPrincipal(
+                user.getUsername(), user.getPassword(), claims.getExpiration().toInstant());
+        principalCache.put(token, principal, stamp);
+        return principal;
+    }
 }
@@ -0,0 +1,151 @@
+package com.travelbuddy.travelbuddy.JWT;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.travelbuddy.travelbuddy.model.SigningKey;
+import com.travelbuddy.travelbuddy.repository.SigningKeyRepository;
+
+import java.security.Key;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// This class holds the JWT signing keys shared by all instances of the application.
+//
+// Keys live in the database, so a token signed by one instance is accepted by every other one and
+// survives restarts. The newest key signs new tokens; its id is written to the token's 'kid' header.
+// A new key is created every rotation interval, and old keys stay available for verification for an
+// overlap window (longer than a token's lifetime), so tokens signed just before a rotation stay valid.
+//
+// All keys are cached in memory and reloaded periodically, so validating a token costs no I/O.
+// A token whose kid is not loaded yet (a key just created by another instance) triggers one reload,
+// throttled so that forged kids cannot be used to hammer the database.
+@Component
+public class KeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyRing.class);
+    private static final Duration MIN_RELOAD_INTERVAL = Duration.ofSeconds(5);
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final Duration rotationInterval;
+    private final Duration overlap;
+    private final Clock clock;
+
+    private volatile ActiveKey signingKey;
+    private volatile Map<String, Key> verificationKeys = Map.of();
+    // Epoch millis of the last reload; claimed with compareAndSet so one unknown kid reload runs per interval
+    private final AtomicLong lastReload = new AtomicLong();
+
+    @Autowired
+    public KeyRing(
+            SigningKeyRepository signingKeyRepository,
+            @Value("${travelbuddy.jwt.rotation-interval:P1D}") Duration rotationInterval,
+            @Value("${travelbuddy.jwt.verification-overlap:PT2H}") Duration overlap) {
+        this(signingKeyRepository, rotationInterval, overlap, Clock.systemUTC());
+    }
+
+    KeyRing(SigningKeyRepository signingKeyRepository, Duration rotationInterval, Duration overlap, Clock clock) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.rotationInterval = rotationInterval;
+        this.overlap = overlap;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void init() {
+        reload();
+        rotateIfDue();
+    }
+
+    // Picks up keys created by other instances and rotates the signing key when it is due.
+    @Scheduled(fixedDelayString = "${travelbuddy.jwt.key-refresh-interval:PT1M}",
+            initialDelayString = "${travelbuddy.jwt.key-refresh-interval:PT1M}")
+    public void refresh() {
+        try {
+            reload();
+            rotateIfDue();
+        } catch (RuntimeException e) {
+            // Keep using the keys already in memory; the next run retries
+            log.warn("Could not refresh JWT key ring", e);
+        }
+    }
+
+    // Returns the key to sign new tokens with.
+    public ActiveKey signingKey() {
+        return signingKey;
+    }
+
+    // Returns the key with the given id, or null if it is unknown or retired.
+    public Key verificationKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        Key key = verificationKeys.get(kid);
+        if (key == null) {
+            long last = lastReload.get();
+            long now = clock.millis();
+            // Of the requests that see the interval expired, only the one that claims it reloads
+            if (now - last >= MIN_RELOAD_INTERVAL.toMillis() && lastReload.compareAndSet(last, now)) {
+                reload();
+                key = verificationKeys.get(kid);
+            }
+        }
+        return key;
+    }
+
+    private synchronized void reload() {
+        Instant now = clock.instant();
+        List<SigningKey> keys = signingKeyRepository.findByCreatedAtAfterOrderByCreatedAtDesc(retirementCutoff(now));
+        Map<String, Key> loaded = new HashMap<>();
+        for (SigningKey key : keys) {
+            loaded.put(key.getKid(), Keys.hmacShaKeyFor(Base64.getDecoder().decode(key.getSecret())));
+        }
+        verificationKeys = Map.copyOf(loaded);
+        if (!keys.isEmpty()) {
+            SigningKey newest = keys.get(0);
+            signingKey = new ActiveKey(newest.getKid(), loaded.get(newest.getKid()), newest.getCreatedAt());
+        }
+        lastReload.set(now.toEpochMilli());
+    }
+
+    private synchronized void rotateIfDue() {
+        Instant now = clock.instant();
+        if (signingKey != null && now.isBefore(signingKey.createdAt().plus(rotationInterval))) {
+            return;
+        }
+        // Instances rotating at the same moment each add a key; that is harmless, since all of them verify
+        SigningKey created = SigningKey.builder()
+                .kid(UUID.randomUUID().toString())
+                .secret(Base64.getEncoder().encodeToString(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded()))
+                .createdAt(now)
+                .build();
+        signingKeyRepository.save(created);
+        long retired = signingKeyRepository.deleteByCreatedAtBefore(retirementCutoff(now));
+        log.info("Rotated JWT signing key to {} ({} retired)", created.getKid(), retired);
+        reload();
+    }
+
+    // A key signs for one rotation interval and then verifies for the overlap window
+    private Instant retirementCutoff(Instant now) {
+        return now.minus(rotationInterval).minus(overlap);
+    }
+
+    // The key currently used for signing, with the id written to the token header.
+    public record ActiveKey(String kid, Key key, Instant createdAt) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.travelbuddy.travelbuddy.JWT;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// This class caches the principal resolved for a verified JWT, so that JWTValidation does not
+// verify the signature and query the database again for every request carrying the same token.
+//
+// Entries are keyed by the SHA-256 digest of the token (the token itself is never stored) and
+// expire after a short time to live, or with the token if that comes first. The cache is bounded
+// and evicts the least recently used entry.
+//
+// Changes to a user (role, password, deletion) must call invalidate(username), but that only
+// reaches the cache of the instance that made the change. Every instance shares the database
+// (see KeyRing), so the other instances pick the change up when their entry expires: the time to
+// live is the longest a demoted or deleted user keeps their old access elsewhere. It is kept short
+// rather than broadcasting invalidations, which would need a message channel between instances.
+@Component
+public class PrincipalCache {
+
+    private final int maxEntries;
+    private final Duration timeToLive;
+    private final Clock clock = Clock.systemUTC();
+    private final Counter hits;
+    private final Counter misses;
+
+    // Access-ordered so the eldest entry is always the least recently used token
+    private final LinkedHashMap<String, Entry> entries;
+    // Bumped on every invalidation; a lookup that raced with one must not be cached
+    private long generation;
+
+    public PrincipalCache(
+            @Value("${travelbuddy.auth.principal-cache.max-entries:10000}") int maxEntries,
+            @Value("${travelbuddy.auth.principal-cache.ttl:PT30S}") Duration timeToLive,
+            MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive;
+        this.hits = meterRegistry.counter("travelbuddy.auth.principal-cache.hits");
+        this.misses = meterRegistry.counter("travelbuddy.auth.principal-cache.misses");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > PrincipalCache.this.maxEntries;
+            }
+        };
+        meterRegistry.gauge("travelbuddy.auth.principal-cache.size", this, PrincipalCache::size);
+    }
+
+    // Returns the principal cached for this token, or null if there is none or the entry has expired.
+    public CachedPrincipal get(String token) {
+        String digest = digest(token);
+        synchronized (this) {
+            Entry cached = entries.get(digest);
+            if (cached != null && clock.instant().isBefore(cached.until())) {
+                hits.increment();
+                return cached.principal();
+            }
+            if (cached != null) {
+                entries.remove(digest);
+            }
+            misses.increment();
+            return null;
+        }
+    }
+
+    // Returns a stamp to pass to put(); take it before loading the user from the database.
+    public synchronized long stamp() {
+        return generation;
+    }
+
+    // Caches the principal for a verified token for the time to live (at most until the token
+    // expires), unless a user was invalidated since the stamp was taken (the loaded data may
+    // already be stale).
+    public void put(String token, CachedPrincipal principal, long stamp) {
+        String digest = digest(token);
+        synchronized (this) {
+            if (stamp == generation) {
+                Instant until = clock.instant().plus(timeToLive);
+                entries.put(digest, new Entry(principal,
+                        until.isBefore(principal.expiresAt()) ? until : principal.expiresAt()));
+            }
+        }
+    }
+
+    // Removes every cached token of a user on this instance. Called when the user's role or
+    // password changes or the user is deleted, so the next request reloads (or rejects) the user.
+    public synchronized void invalidate(String username) {
+        generation++;
+        entries.values().removeIf(entry -> entry.principal().username().equals(username));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // The resolved principal of a token, and the token's expiry.
+    public record CachedPrincipal(String username, String credentials, Instant expiresAt) {
+    }
+
+    // A cached principal and the end of its time to live.
+    private record Entry(CachedPrincipal principal, Instant until) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.travelbuddy.travelbuddy.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled methods, such as the periodic JWT key ring refresh and rotation.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
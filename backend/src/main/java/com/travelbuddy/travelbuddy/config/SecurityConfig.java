@@ -1,5 +1,6 @@
 package com.travelbuddy.travelbuddy.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -29,10 +30,12 @@ public class SecurityConfig {
     /**
      * Provides a BCryptPasswordEncoder bean for password encryption.
      * BCrypt is a strong password hashing algorithm that automatically handles salt generation.
+     * The strength (log2 of the number of rounds) is configurable; hashes made with a lower
+     * strength are upgraded on the user's next login.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${travelbuddy.auth.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     /**
@@ -43,7 +46,7 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http, JWTValidation jwtValidation) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/users/login", "/api/users/register", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                .requestMatchers("/api/users/login", "/api/users/register", "/api/users/refresh", "/api/users/logout", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 .requestMatchers("/api/admin/**").hasRole("ADMIN") // Admin-only endpoints
                 .anyRequest().permitAll() // Temporarily permit all requests for accessibility
             )
@@ -0,0 +1,108 @@
+package com.travelbuddy.travelbuddy.config;
+
+import io.netty.channel.ChannelOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * HTTP client shared by all upstream calls (Open-Meteo, Nominatim, Overpass).
+ *
+ * Spring Boot applies a {@link ClientHttpConnector} bean to every injected {@code WebClient.Builder},
+ * so the services keep building their clients as before and all of them share this connector:
+ * <ul>
+ *   <li>one connection pool with a pool per remote host, sized by {@code travelbuddy.http.*} and
+ *       overridable per host under {@code travelbuddy.http.hosts[<host>].*} (HTTPS, port 443);
+ *       idle and long-lived connections are evicted in the background,</li>
+ *   <li>gzip/deflate compressed responses ({@code Accept-Encoding}), decompressed transparently,</li>
+ *   <li>connect and response timeouts,</li>
+ *   <li>a caching DNS resolver, so hostnames are not resolved for every new connection.</li>
+ * </ul>
+ * Pool metrics ({@code reactor.netty.connection.provider.*}: active, idle, pending connections and
+ * acquire time) and client metrics ({@code reactor.netty.http.client.*}: bytes sent and received,
+ * response time per host and path) are exported through Micrometer.
+ */
+@Configuration
+public class UpstreamHttpConfig {
+
+    static final String PROPERTY_PREFIX = "travelbuddy.http";
+
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider upstreamConnectionProvider(
+            Environment environment,
+            @Value("${travelbuddy.http.max-connections:50}") int maxConnections,
+            @Value("${travelbuddy.http.pending-acquire-max-count:200}") int pendingAcquireMaxCount,
+            @Value("${travelbuddy.http.pending-acquire-timeout:PT10S}") Duration pendingAcquireTimeout,
+            @Value("${travelbuddy.http.max-idle-time:PT30S}") Duration maxIdleTime,
+            @Value("${travelbuddy.http.max-life-time:PT5M}") Duration maxLifeTime,
+            @Value("${travelbuddy.http.evict-interval:PT30S}") Duration evictInterval) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("upstream")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInterval)
+                .metrics(true);
+
+        Map<String, HostPool> hosts = Binder.get(environment)
+                .bind(PROPERTY_PREFIX + ".hosts", Bindable.mapOf(String.class, HostPool.class))
+                .orElse(Map.of());
+        hosts.forEach((host, pool) -> builder.forRemoteHost(InetSocketAddress.createUnresolved(host, 443), spec -> {
+            if (pool.maxConnections() != null) {
+                spec.maxConnections(pool.maxConnections());
+            }
+            if (pool.pendingAcquireMaxCount() != null) {
+                spec.pendingAcquireMaxCount(pool.pendingAcquireMaxCount());
+            }
+            if (pool.pendingAcquireTimeout() != null) {
+                spec.pendingAcquireTimeout(pool.pendingAcquireTimeout());
+            }
+            if (pool.maxIdleTime() != null) {
+                spec.maxIdleTime(pool.maxIdleTime());
+            }
+        }));
+        return builder.build();
+    }
+
+    @Bean
+    ClientHttpConnector upstreamClientHttpConnector(
+            ConnectionProvider upstreamConnectionProvider,
+            @Value("${travelbuddy.http.connect-timeout:PT5S}") Duration connectTimeout,
+            @Value("${travelbuddy.http.response-timeout:PT30S}") Duration responseTimeout,
+            @Value("${travelbuddy.http.dns-cache-max-ttl:PT5M}") Duration dnsCacheMaxTtl) {
+        HttpClient httpClient = HttpClient.create(upstreamConnectionProvider)
+                .compress(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout)
+                .resolver(spec -> spec.cacheMaxTimeToLive(dnsCacheMaxTtl))
+                // Tag by path only; query strings would create a meter per coordinate
+                .metrics(true, UpstreamHttpConfig::pathOf);
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    private static String pathOf(String uri) {
+        int query = uri.indexOf('?');
+        return query < 0 ? uri : uri.substring(0, query);
+    }
+
+    /**
+     * Pool settings for one remote host; unset values fall back to the shared defaults.
+     */
+    record HostPool(Integer maxConnections, Integer pendingAcquireMaxCount, Duration pendingAcquireTimeout,
+            Duration maxIdleTime) {
+    }
+}
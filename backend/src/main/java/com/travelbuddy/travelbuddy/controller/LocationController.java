@@ -7,14 +7,20 @@ import com.travelbuddy.travelbuddy.service.OverpassService;
 import com.travelbuddy.travelbuddy.service.TripService;
 import com.travelbuddy.travelbuddy.service.LocationService;
 import com.travelbuddy.travelbuddy.mapper.LocationMapper;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import reactor.core.publisher.Mono;
 
+import java.security.Principal;
 import java.util.List;
 
 /**
@@ -32,6 +38,8 @@ import java.util.List;
 @RequestMapping("/api/locations")
 public class LocationController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final GeocodingService geocodingService;
     private final OverpassService overpassService;
     private final TripService tripService;
@@ -63,23 +71,62 @@ public class LocationController {
     /**
      * Search for locations by name using Nominatim API.
      * This endpoint is used by the frontend to find locations for the map.
+     * The request is handled asynchronously, so no servlet thread waits on Nominatim.
+     * 
+     * Typeahead searches are answered from places learned earlier when any match, so typing
+     * mostly costs no Nominatim request. A newer typeahead search from the same client supersedes
+     * an older one still waiting for Nominatim, which then returns an empty list. The client is identified by the id the browser
+     * sends, else by user or HTTP session; the remote address is only a last resort, since many
+     * users behind one proxy or NAT share it.
      * 
      * @param query The location name to search for
+     * @param typeahead Whether the search is sent while the user is typing
+     * @param client Random id of the browser tab sending typeahead searches
+     * @param request The HTTP request, used to identify the client without an id
      * @return List of location information including coordinates
      */
     @Operation(summary = "Search locations by name", description = "Search for locations using OpenStreetMap's Nominatim API.",
-        parameters = @Parameter(name = "query", description = "Location name to search for", example = "Paris"),
-        responses = @ApiResponse(responseCode = "200", description = "List of locations")
+        parameters = {
+            @Parameter(name = "query", description = "Location name to search for", example = "Paris"),
+            @Parameter(name = "typeahead", description = "Search-as-you-type request; superseded by the same client's next one", example = "true"),
+            @Parameter(name = "client", description = "Random id of the browser tab, identifying typeahead searches (at most 64 characters)", example = "0b6f3c1e-7d2a-4a51-9a8e-2f4f1c3d5e6a")
+        },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "List of locations (empty if superseded)"),
+            @ApiResponse(responseCode = "503", description = "Nominatim is unavailable or too many searches are queued")
+        }
     )
     @GetMapping("/search")
-    public ResponseEntity<List<GeocodingService.LocationInfo>> searchLocation(
-            @RequestParam String query) {
-        return ResponseEntity.ok(geocodingService.searchLocation(query));
+    public Mono<ResponseEntity<List<GeocodingService.LocationInfo>>> searchLocation(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "false") boolean typeahead,
+            @RequestParam(required = false) String client,
+            HttpServletRequest request) {
+        String typeaheadClient = typeahead ? typeaheadClient(client, request) : null;
+        return geocodingService.searchLocation(query, typeaheadClient)
+                .map(ResponseEntity::ok);
+    }
+
+    // Prefixed so that ids of different kinds never collide
+    private static String typeaheadClient(String client, HttpServletRequest request) {
+        if (client != null && !client.isBlank() && client.length() <= 64) {
+            return "id:" + client;
+        }
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            return "session:" + session.getId();
+        }
+        return "addr:" + request.getRemoteAddr();
     }
 
     /**
      * Search for points of interest near a location using Overpass API.
      * This endpoint is used to find nearby amenities like restaurants, cafes, and hotels.
+     * The request is handled asynchronously, so no servlet thread waits on Overpass.
      * 
      * @param latitude Center point latitude
      * @param longitude Center point longitude
@@ -97,7 +144,7 @@ public class LocationController {
         responses = @ApiResponse(responseCode = "200", description = "List of points of interest")
     )
     @GetMapping("/poi")
-    public ResponseEntity<List<OverpassService.PointOfInterest>> searchPointsOfInterest(
+    public Mono<ResponseEntity<List<OverpassService.PointOfInterest>>> searchPointsOfInterest(
             @RequestParam double latitude,
             @RequestParam double longitude,
             @RequestParam(defaultValue = "1000") int radius,
@@ -105,10 +152,83 @@ public class LocationController {
         
         List<String> amenityTypes = types.isBlank() ? List.of() : List.of(types.split(","));
         if (amenityTypes.isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return overpassService.searchPointsOfInterest(latitude, longitude, radius, amenityTypes)
+            .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Finds saved locations within a radius of a coordinate, nearest first, one page at a time.
+     * The search is narrowed by a bounding box so the database can use the latitude/longitude index.
+     * 
+     * @param latitude Center point latitude
+     * @param longitude Center point longitude
+     * @param radius Search radius in kilometres (default: 10)
+     * @param page Zero-based page number (default: 0)
+     * @param size Page size (default: 20, at most 100)
+     * @return One page of locations within the radius
+     */
+    @Operation(summary = "Find saved locations nearby", description = "Finds saved locations within a radius of a coordinate, ordered by distance and paginated.",
+        parameters = {
+            @Parameter(name = "latitude", description = "Center latitude", example = "48.8584"),
+            @Parameter(name = "longitude", description = "Center longitude", example = "2.2945"),
+            @Parameter(name = "radius", description = "Search radius in kilometres", example = "10"),
+            @Parameter(name = "page", description = "Zero-based page number", example = "0"),
+            @Parameter(name = "size", description = "Page size (max 100)", example = "20")
+        },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Page of locations"),
+            @ApiResponse(responseCode = "400", description = "Invalid radius or paging parameters")
+        }
+    )
+    @GetMapping("/nearby")
+    public ResponseEntity<Page<LocationDto>> findNearbyLocations(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "10") double radius,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        if (radius <= 0 || page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
             return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(overpassService.searchPointsOfInterest(
-            latitude, longitude, radius, amenityTypes));
+        var locations = locationService.findWithinRadius(latitude, longitude, radius, PageRequest.of(page, size));
+        return ResponseEntity.ok(locations.map(locationMapper::toDto));
+    }
+
+    /**
+     * Finds the saved locations nearest to a coordinate.
+     * 
+     * @param latitude Center point latitude
+     * @param longitude Center point longitude
+     * @param k Number of locations to return (default: 10, at most 100)
+     * @return Up to k locations, nearest first
+     */
+    @Operation(summary = "Find nearest saved locations", description = "Returns the k saved locations closest to a coordinate, nearest first.",
+        parameters = {
+            @Parameter(name = "latitude", description = "Center latitude", example = "48.8584"),
+            @Parameter(name = "longitude", description = "Center longitude", example = "2.2945"),
+            @Parameter(name = "k", description = "Number of locations to return (max 100)", example = "10")
+        },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "List of nearest locations"),
+            @ApiResponse(responseCode = "400", description = "Invalid k")
+        }
+    )
+    @GetMapping("/nearest")
+    public ResponseEntity<List<LocationDto>> findNearestLocations(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "10") int k) {
+
+        if (k < 1 || k > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        var dtos = locationService.findNearest(latitude, longitude, k).stream()
+            .map(locationMapper::toDto)
+            .toList();
+        return ResponseEntity.ok(dtos);
     }
 
     /**
@@ -230,4 +350,4 @@ public class LocationController {
         locationService.deleteLocation(locationOpt.get());
         return ResponseEntity.noContent().build();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.travelbuddy.travelbuddy.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Writes a keyset-paginated table as newline-delimited JSON (one object per line).
+ *
+ * Rows are fetched one chunk at a time and flushed to the client before the next chunk is
+ * read, so memory use depends on the chunk size and not on the size of the table.
+ */
+final class NdjsonStreams {
+
+    static final String MEDIA_TYPE = "application/x-ndjson";
+    static final int CHUNK_SIZE = 500;
+
+    private NdjsonStreams() {
+    }
+
+    /**
+     * Creates a response body that streams all rows.
+     *
+     * @param objectMapper mapper used to serialize each row
+     * @param fetchAfter loads at most {@code limit} rows with an id greater than the given cursor
+     * @param idOf extracts the id used as the next cursor
+     * @param toDto converts a row to the object written to the client
+     * @return the streaming response body
+     */
+    static <E> StreamingResponseBody stream(
+            ObjectMapper objectMapper,
+            BiFunction<Long, Integer, List<E>> fetchAfter,
+            Function<E, Long> idOf,
+            Function<E, ?> toDto) {
+        return out -> {
+            Long after = null;
+            List<E> chunk;
+            do {
+                chunk = fetchAfter.apply(after, CHUNK_SIZE);
+                for (E row : chunk) {
+                    out.write(objectMapper.writeValueAsBytes(toDto.apply(row)));
+                    out.write('\n');
+                }
+                out.flush();
+                if (!chunk.isEmpty()) {
+                    after = idOf.apply(chunk.get(chunk.size() - 1));
+                }
+            } while (chunk.size() == CHUNK_SIZE);
+        };
+    }
+}
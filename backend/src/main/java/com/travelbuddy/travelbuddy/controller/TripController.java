@@ -1,24 +1,34 @@
 package com.travelbuddy.travelbuddy.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelbuddy.travelbuddy.dto.CursorPageDto;
 import com.travelbuddy.travelbuddy.dto.TripDto;
+import com.travelbuddy.travelbuddy.dto.TripWeatherDto;
+import com.travelbuddy.travelbuddy.model.Location;
 import com.travelbuddy.travelbuddy.model.Trip;
 import com.travelbuddy.travelbuddy.model.TripStatus;
 import com.travelbuddy.travelbuddy.model.User;
+import com.travelbuddy.travelbuddy.service.TripDetailService;
 import com.travelbuddy.travelbuddy.service.TripService;
 import com.travelbuddy.travelbuddy.service.UserService;
+import com.travelbuddy.travelbuddy.service.WeatherService;
 import com.travelbuddy.travelbuddy.mapper.TripMapper;
 import com.travelbuddy.travelbuddy.repository.UserRepository;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -34,16 +44,26 @@ import java.util.Map;
 @RequestMapping("/api/trips")
 public class TripController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final TripService tripService;
     private final UserService userService;
     private final TripMapper tripMapper;
     private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final WeatherService weatherService;
+    private final TripDetailService tripDetailService;
 
-    public TripController(TripService tripService, UserService userService, TripMapper tripMapper, UserRepository userRepository) {
+    public TripController(TripService tripService, UserService userService, TripMapper tripMapper, UserRepository userRepository,
+                          ObjectMapper objectMapper, WeatherService weatherService, TripDetailService tripDetailService) {
         this.tripService = tripService;
         this.userService = userService;
         this.tripMapper = tripMapper;
         this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.weatherService = weatherService;
+        this.tripDetailService = tripDetailService;
     }
 
     /**
@@ -113,6 +133,79 @@ public class TripController {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Trip not found");
     }
 
+    /**
+     * Gets everything the trip detail view shows in one request: the trip, its locations, and the
+     * weather and points of interest at the destination. Weather and points of interest are fetched
+     * concurrently, each with its own deadline, and returned with a per-part status so a slow or
+     * failing upstream only empties its own part.
+     * @param id the trip ID
+     * @param radius search radius for points of interest, in meters
+     * @param types comma-separated point of interest types; empty skips the search
+     * @return the trip detail view
+     */
+    @Operation(summary = "Get the trip detail view", description = "Retrieves the trip, its locations, the destination weather for the trip dates and optionally nearby points of interest in one request. Weather and points of interest each carry a status (OK, SKIPPED, TIMEOUT, UNAVAILABLE).",
+        parameters = {
+            @Parameter(name = "id", description = "Trip ID", example = "1"),
+            @Parameter(name = "radius", description = "Search radius for points of interest in meters", example = "1000"),
+            @Parameter(name = "types", description = "Comma-separated point of interest types; empty skips the search", example = "restaurant,cafe")
+        },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Trip detail view, possibly with unavailable parts"),
+            @ApiResponse(responseCode = "404", description = "Trip not found")
+        }
+    )
+    @GetMapping("/{id}/detail")
+    public Mono<ResponseEntity<?>> getTripDetail(@PathVariable Long id,
+                                                 @RequestParam(defaultValue = "1000") int radius,
+                                                 @RequestParam(defaultValue = "") String types) {
+        List<String> poiTypes = types.isBlank() ? List.of() : List.of(types.split(","));
+        return tripDetailService.getDetail(id, radius, poiTypes)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).body("Trip not found"));
+    }
+
+    /**
+     * Gets the weather for every point of a trip: the destination and each saved location.
+     * All points are forecast with one batched Open-Meteo request (points already cached are
+     * not requested), and each forecast is limited to the trip's start and end date.
+     * @param id the trip ID
+     * @return the forecasts per point, in columnar form
+     */
+    @Operation(summary = "Get the weather along a trip", description = "Retrieves columnar weather forecasts for the trip destination and each saved location, limited to the trip dates. Days beyond the forecast range are empty.",
+        parameters = @Parameter(name = "id", description = "Trip ID", example = "1"),
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Forecasts per point"),
+            @ApiResponse(responseCode = "404", description = "Trip not found"),
+            @ApiResponse(responseCode = "503", description = "Open-Meteo is unavailable")
+        }
+    )
+    @GetMapping("/{id}/weather")
+    public Mono<ResponseEntity<?>> getTripWeather(@PathVariable Long id) {
+        Optional<Trip> tripOpt = tripService.findByIdWithLocations(id);
+        if (tripOpt.isEmpty()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body("Trip not found"));
+        }
+        Trip trip = tripOpt.get();
+        List<TripWeatherDto.Point> points = new ArrayList<>();
+        if (trip.getLatitude() != null && trip.getLongitude() != null) {
+            points.add(new TripWeatherDto.Point(trip.getDestination(), null, trip.getLatitude(), trip.getLongitude(), null));
+        }
+        for (Location location : trip.getLocations()) {
+            points.add(new TripWeatherDto.Point(location.getName(), location.getId(),
+                    location.getLatitude(), location.getLongitude(), null));
+        }
+        List<WeatherService.Coordinates> coordinates = points.stream()
+                .map(point -> new WeatherService.Coordinates(point.getLatitude(), point.getLongitude()))
+                .toList();
+
+        return weatherService.getForecastColumns(coordinates).map(forecasts -> {
+            for (int i = 0; i < points.size(); i++) {
+                points.get(i).setForecast(WeatherService.clipToDates(forecasts.get(i), trip.getStartDate(), trip.getEndDate()));
+            }
+            return ResponseEntity.ok(new TripWeatherDto(trip.getId(), trip.getStartDate(), trip.getEndDate(), points));
+        });
+    }
+
     /**
      * Gets all trips organized by a user.
      * @param organizerId the organizer's ID
@@ -303,17 +396,56 @@ public class TripController {
     }
 
     /**
-     * Gets all trips.
-     * @return list of all trips
+     * Gets all trips, or one keyset page of trips when limit or after is given.
+     * @param limit page size; enables pagination
+     * @param after cursor returned as nextCursor by the previous page
+     * @return list of all trips, or a page of trips with the cursor of the next page
      */
-    @Operation(summary = "Get all trips", description = "Retrieves a list of all trips in the system.",
-        responses = @ApiResponse(responseCode = "200", description = "List of all trips")
+    @Operation(summary = "Get all trips", description = "Retrieves all trips. With limit/after, returns one page ordered by id together with the cursor of the next page.",
+        parameters = {
+            @Parameter(name = "limit", description = "Page size (max 500). Enables keyset pagination", example = "100"),
+            @Parameter(name = "after", description = "Cursor: nextCursor of the previous page", example = "0")
+        },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "List of all trips, or a page of trips"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit")
+        }
     )
     @GetMapping
-    public ResponseEntity<List<TripDto>> getAllTrips() {
-        List<Trip> trips = tripService.findAll();
-        List<TripDto> tripDtos = trips.stream().map(tripMapper::toDto).toList();
-        return ResponseEntity.ok(tripDtos);
+    public ResponseEntity<?> getAllTrips(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after) {
+        if (limit == null && after == null) {
+            List<Trip> trips = tripService.findAll();
+            List<TripDto> tripDtos = trips.stream().map(tripMapper::toDto).toList();
+            return ResponseEntity.ok(tripDtos);
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("message", "limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        List<TripDto> page = tripService.findAfter(after, pageSize, tripMapper::toDto);
+        Long nextCursor = page.size() == pageSize ? page.get(page.size() - 1).getId() : null;
+        return ResponseEntity.ok(new CursorPageDto<>(page, nextCursor));
+    }
+
+    /**
+     * Streams all trips as newline-delimited JSON, one trip per line.
+     * Selected with the query parameter format=ndjson.
+     * @return the streaming response
+     */
+    @Operation(summary = "Stream all trips", description = "Streams all trips as newline-delimited JSON (format=ndjson). Rows are read and written in chunks, so memory use does not grow with the number of trips.",
+        parameters = @Parameter(name = "format", description = "Must be ndjson", example = "ndjson"),
+        responses = @ApiResponse(responseCode = "200", description = "One trip per line")
+    )
+    @GetMapping(params = "format=ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllTrips() {
+        StreamingResponseBody body = NdjsonStreams.stream(
+            objectMapper,
+            (cursor, size) -> tripService.findAfter(cursor, size, tripMapper::toDto),
+            TripDto::getId,
+            dto -> dto);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NdjsonStreams.MEDIA_TYPE)).body(body);
     }
 
     /**
@@ -2,19 +2,28 @@ package com.travelbuddy.travelbuddy.controller;
 
 import com.travelbuddy.travelbuddy.model.User;
 import com.travelbuddy.travelbuddy.model.Buddy;
+import com.travelbuddy.travelbuddy.service.PasswordHashingService;
+import com.travelbuddy.travelbuddy.service.RefreshTokenService;
 import com.travelbuddy.travelbuddy.service.UserService;
 import com.travelbuddy.travelbuddy.JWT.JWTUtil;
+import com.travelbuddy.travelbuddy.JWT.PrincipalCache;
 import com.travelbuddy.travelbuddy.dto.UserDto;
+import com.travelbuddy.travelbuddy.dto.CursorPageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.travelbuddy.travelbuddy.dto.BuddyDto;
 import com.travelbuddy.travelbuddy.dto.LoginDto;
 import com.travelbuddy.travelbuddy.mapper.UserMapper;
 import com.travelbuddy.travelbuddy.mapper.BuddyMapper;
 import jakarta.validation.Valid;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -26,8 +35,6 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.Map;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
-
 /**
  * REST controller for user-related operations.
  * Handles HTTP requests for user registration and user information retrieval.
@@ -36,24 +43,40 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final String REFRESH_COOKIE = "refresh_token";
+    private static final String REFRESH_COOKIE_PATH = "/api/users";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final UserService userService;
     private final UserMapper userMapper;
     private final BuddyMapper buddyMapper;
     private final JWTUtil jwtUtil;
+    private final ObjectMapper objectMapper;
+    private final PrincipalCache principalCache;
+    private final RefreshTokenService refreshTokenService;
 
-    @Autowired
-    PasswordEncoder passwordEncoder;
+    // Send the refresh cookie over HTTPS only; disable for local development over plain HTTP
+    @Value("${travelbuddy.auth.refresh-cookie-secure:true}")
+    private boolean refreshCookieSecure;
 
     /**
      * Constructor-based dependency injection for UserService and UserMapper.
      * @param userService the service for user business logic
      * @param userMapper the mapper for converting DTOs to entities
+     * @param objectMapper the mapper used to write streamed listings
+     * @param principalCache the cache of authenticated tokens, invalidated when a user changes
+     * @param refreshTokenService the service issuing and rotating refresh tokens
      */
-    public UserController(UserService userService, UserMapper userMapper, BuddyMapper buddyMapper, JWTUtil jwtUtil) {
+    public UserController(UserService userService, UserMapper userMapper, BuddyMapper buddyMapper, JWTUtil jwtUtil,
+                          ObjectMapper objectMapper, PrincipalCache principalCache, RefreshTokenService refreshTokenService) {
         this.userService = userService;
         this.userMapper = userMapper;
         this.buddyMapper = buddyMapper;
         this.jwtUtil = jwtUtil;
+        this.objectMapper = objectMapper;
+        this.principalCache = principalCache;
+        this.refreshTokenService = refreshTokenService;
     }
 
     /**
@@ -70,7 +93,8 @@ public class UserController {
         ),
         responses = {
             @ApiResponse(responseCode = "201", description = "User registered successfully"),
-            @ApiResponse(responseCode = "400", description = "Username or email already exists")
+            @ApiResponse(responseCode = "400", description = "Username or email already exists"),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent registrations or logins, retry shortly")
         }
     )
     @PostMapping("/register")
@@ -86,8 +110,12 @@ public class UserController {
         User user = userMapper.toEntity(userDto);
         // Set role from DTO
         user.setRole(userDto.getRole());
-        User savedUser = userService.registerUser(user);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
+        try {
+            User savedUser = userService.registerUser(user);
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
+        } catch (PasswordHashingService.PasswordHashingRejectedException e) {
+            return hashingOverloaded(e);
+        }
     }
 
     /**
@@ -161,8 +189,14 @@ public class UserController {
         if (userOpt.isPresent()) {
             User user = userOpt.get();
             user.setEmail(userDto.getEmail());
-            user.setPassword(userDto.getPassword()); // In real apps, hash the password!
-            userService.registerUser(user);
+            user.setPassword(userDto.getPassword()); // Hashed by registerUser
+            try {
+                userService.registerUser(user);
+            } catch (PasswordHashingService.PasswordHashingRejectedException e) {
+                return hashingOverloaded(e);
+            }
+            principalCache.invalidate(username);
+            refreshTokenService.revokeAll(user);
             return ResponseEntity.ok(user);
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
@@ -187,6 +221,7 @@ public class UserController {
         Optional<User> userOpt = userService.findByUsername(username);
         if (userOpt.isPresent()) {
             userService.deleteUser(userOpt.get());
+            principalCache.invalidate(username);
             return ResponseEntity.noContent().build();
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
@@ -208,25 +243,115 @@ public class UserController {
             content = @Content(examples = @ExampleObject(value = "{\"username\": \"john_doe\", \"password\": \"password123\"}"))
         ),
         responses = {
-            @ApiResponse(responseCode = "200", description = "Authenticated successfully, returns JWT token"),
-            @ApiResponse(responseCode = "401", description = "Username or password incorrect")
+            @ApiResponse(responseCode = "200", description = "Authenticated successfully, returns JWT token and sets the refresh token cookie"),
+            @ApiResponse(responseCode = "401", description = "Username or password incorrect"),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent logins, retry shortly")
         }
     )
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginDto loginDto) {
-        System.out.println("Login attempt - Username: " + loginDto.getUsername());
-        
-        User loginUser = userService.findByUsername(loginDto.getUsername()).orElse(null);
-        System.out.println("User found: " + (loginUser != null));
+        User loginUser;
+        try {
+            loginUser = userService.authenticate(loginDto.getUsername(), loginDto.getPassword()).orElse(null);
+        } catch (PasswordHashingService.PasswordHashingRejectedException e) {
+            return hashingOverloaded(e);
+        }
 
-        if (loginUser != null && passwordEncoder.matches(loginDto.getPassword(), loginUser.getPassword())) {
+        if (loginUser != null) {
                 String token = jwtUtil.generateToken(loginUser);
-            return ResponseEntity.ok(token);
+            return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, refreshCookie(refreshTokenService.issue(loginUser)).toString())
+                .body(token);
         } else {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid username or password");
         }
     }
 
+    /**
+     * Issues a new access token in exchange for the refresh token cookie set at login.
+     * No password is checked, so this is far cheaper than logging in again. The refresh
+     * token is single-use and is replaced by a new cookie.
+     *
+     * @param refreshToken the refresh token cookie
+     * @return a new JWT token, 409 if a concurrent request just rotated the refresh token (the
+     *         client should use the token that request obtained), or 401 if the refresh token is
+     *         missing, expired or revoked
+     */
+    @Operation(summary = "Refresh access token", description = "Exchanges the HttpOnly refresh token cookie set at login for a new JWT token and a new refresh token cookie.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Returns a new JWT token and replaces the refresh token cookie"),
+            @ApiResponse(responseCode = "401", description = "Refresh token missing, expired or revoked"),
+            @ApiResponse(responseCode = "409", description = "Refresh token was just rotated by a concurrent request; the cookie is left as is")
+        }
+    )
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Missing refresh token");
+        }
+        try {
+            return refreshTokenService.rotate(refreshToken)
+                .<ResponseEntity<?>>map(rotation -> ResponseEntity.ok()
+                    .header(HttpHeaders.SET_COOKIE, refreshCookie(rotation.refreshToken()).toString())
+                    .body(jwtUtil.generateToken(rotation.user())))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .header(HttpHeaders.SET_COOKIE, clearedRefreshCookie().toString())
+                    .body("Invalid or expired refresh token"));
+        } catch (RefreshTokenService.RecentlyRotatedException e) {
+            // The other request set the new cookie; clearing it here would log the user out
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Logs out by revoking the refresh token cookie. The current access token stays valid
+     * until it expires, at most one hour.
+     *
+     * @param refreshToken the refresh token cookie
+     * @return 204 No Content
+     */
+    @Operation(summary = "Logout", description = "Revokes the refresh token cookie so it can no longer be used to obtain new JWT tokens.",
+        responses = @ApiResponse(responseCode = "204", description = "Refresh token revoked and cookie cleared")
+    )
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        return ResponseEntity.noContent()
+            .header(HttpHeaders.SET_COOKIE, clearedRefreshCookie().toString())
+            .build();
+    }
+
+    // Password hashing is at capacity: ask the client to back off briefly instead of queueing without bound
+    private ResponseEntity<String> hashingOverloaded(PasswordHashingService.PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(e.getMessage());
+    }
+
+    // The refresh token is only readable by the server (HttpOnly) and only sent to the refresh
+    // and logout endpoints; SameSite=Strict keeps other sites from triggering a refresh.
+    private ResponseCookie refreshCookie(String refreshToken) {
+        return ResponseCookie.from(REFRESH_COOKIE, refreshToken)
+            .httpOnly(true)
+            .secure(refreshCookieSecure)
+            .sameSite("Strict")
+            .path(REFRESH_COOKIE_PATH)
+            .maxAge(refreshTokenService.getTimeToLive())
+            .build();
+    }
+
+    private ResponseCookie clearedRefreshCookie() {
+        return ResponseCookie.from(REFRESH_COOKIE, "")
+            .httpOnly(true)
+            .secure(refreshCookieSecure)
+            .sameSite("Strict")
+            .path(REFRESH_COOKIE_PATH)
+            .maxAge(0)
+            .build();
+    }
+
     @Operation(summary = "Send a buddy request", description = "Sends a buddy request to another user.")
     @PostMapping("/{username}/buddy-request/{buddyUsername}")
     public ResponseEntity<?> sendBuddyRequest(
@@ -339,21 +464,63 @@ public class UserController {
     }
 
     /**
-     * Retrieves a list of all users (username, email, role only).
+     * Retrieves a list of all users (username, email, role only), or one keyset page of
+     * users when limit or after is given.
      *
-     * @return a list of UserDto objects for all users
+     * @param limit page size; enables pagination
+     * @param after cursor returned as nextCursor by the previous page
+     * @return a list of UserDto objects for all users, or a page of them with the cursor of the next page
      */
-    @Operation(summary = "Get all users", description = "Retrieves a list of all users with their username, email, and role.")
+    @Operation(summary = "Get all users", description = "Retrieves a list of all users with their username, email, and role. With limit/after, returns one page ordered by id together with the cursor of the next page.",
+        parameters = {
+            @Parameter(name = "limit", description = "Page size (max 500). Enables keyset pagination", example = "100"),
+            @Parameter(name = "after", description = "Cursor: nextCursor of the previous page", example = "0")
+        },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "List of all users, or a page of users"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit")
+        }
+    )
     @GetMapping
-    public List<UserDto> getAllUsers() {
-        // Fetch all users and map them to UserDto (without password)
-        return userService.findAll().stream()
-            .map(user -> UserDto.builder()
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .role(user.getRole())
-                .build())
-            .toList();
+    public ResponseEntity<?> getAllUsers(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after) {
+        if (limit == null && after == null) {
+            // Fetch all users and map them to UserDto (without password)
+            return ResponseEntity.ok(userService.findAll().stream().map(this::toPublicDto).toList());
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("message", "limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        List<User> users = userService.findAfter(after, pageSize);
+        Long nextCursor = users.size() == pageSize ? users.get(users.size() - 1).getId() : null;
+        return ResponseEntity.ok(new CursorPageDto<>(users.stream().map(this::toPublicDto).toList(), nextCursor));
+    }
+
+    /**
+     * Streams all users (username, email, role only) as newline-delimited JSON.
+     * Selected with the query parameter format=ndjson.
+     *
+     * @return the streaming response
+     */
+    @Operation(summary = "Stream all users", description = "Streams all users as newline-delimited JSON (format=ndjson). Rows are read and written in chunks, so memory use does not grow with the number of users.",
+        parameters = @Parameter(name = "format", description = "Must be ndjson", example = "ndjson"),
+        responses = @ApiResponse(responseCode = "200", description = "One user per line")
+    )
+    @GetMapping(params = "format=ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        StreamingResponseBody body = NdjsonStreams.stream(objectMapper, userService::findAfter, User::getId, this::toPublicDto);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NdjsonStreams.MEDIA_TYPE)).body(body);
+    }
+
+    // Maps a user to the public listing form (without password)
+    private UserDto toPublicDto(User user) {
+        return UserDto.builder()
+            .username(user.getUsername())
+            .email(user.getEmail())
+            .role(user.getRole())
+            .build();
     }
 
     /**
@@ -381,6 +548,7 @@ public class UserController {
         // Set the new role (always uppercase)
         user.setRole(newRole.toUpperCase());
         userService.saveUser(user); // Do not re-encode password
+        principalCache.invalidate(username);
         return ResponseEntity.ok().build();
     }
 } 
\ No newline at end of file
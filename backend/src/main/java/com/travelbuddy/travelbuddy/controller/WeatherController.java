@@ -3,12 +3,15 @@ package com.travelbuddy.travelbuddy.controller;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import com.travelbuddy.travelbuddy.dto.WeatherLocationDto;
+import com.travelbuddy.travelbuddy.service.ForecastSelection;
 import com.travelbuddy.travelbuddy.service.WeatherService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 /**
  * REST controller for weather-related operations.
@@ -29,27 +32,67 @@ public class WeatherController {
     /**
      * Retrieves weather forecast data for a specific location using Open-Meteo API.
      * The forecast includes temperature, precipitation, wind speed, and other weather metrics.
+     * The request is handled asynchronously, so no servlet thread waits on Open-Meteo.
+     * 
+     * With {@code format=columnar} the forecast is returned as a WeatherForecastColumnsDto,
+     * one array per variable with epoch-second times, which is far smaller to build and
+     * serialize than the default one-object-per-hour layout.
+     * 
+     * {@code sections}, {@code variables}, {@code days} and {@code hours} narrow the forecast,
+     * e.g. {@code sections=current} for a current-conditions widget. Only the selected part is
+     * requested from Open-Meteo, parsed and returned; a cached wider forecast is reused.
+     * Variables can only be chosen for the columnar format.
      * 
      * @param latitude the latitude coordinate of the location
      * @param longitude the longitude coordinate of the location
-     * @return WeatherLocationDto containing the forecast data
+     * @param format response layout, "default" or "columnar"
+     * @param sections sections to return (current, hourly, daily), all by default
+     * @param variables hourly and daily variables to return, all by default
+     * @param days number of forecast days, 7 by default
+     * @param hours number of hourly entries from the current hour, all hours of the days by default
+     * @return WeatherLocationDto (or WeatherForecastColumnsDto) containing the forecast data
      */
     @Operation(summary = "Get weather forecast", description = "Retrieves weather forecast data for a specific location using Open-Meteo API. Returns temperature, precipitation, wind speed, and other weather metrics.",
         parameters = {
             @Parameter(name = "latitude", description = "Latitude coordinate of the location", example = "48.2"),
-            @Parameter(name = "longitude", description = "Longitude coordinate of the location", example = "16.38")
+            @Parameter(name = "longitude", description = "Longitude coordinate of the location", example = "16.38"),
+            @Parameter(name = "format", description = "Response layout: 'default' (one object per hour/day) or 'columnar' (one array per variable)", example = "columnar"),
+            @Parameter(name = "sections", description = "Comma-separated sections to return: current, hourly, daily. All by default", example = "current,hourly"),
+            @Parameter(name = "variables", description = "Comma-separated hourly and daily variables to return (columnar format only), named as in the columnar response. All by default", example = "temperature,weatherCode"),
+            @Parameter(name = "days", description = "Number of forecast days, 1 to 16. Defaults to 7", example = "3"),
+            @Parameter(name = "hours", description = "Number of hourly entries starting at the current hour. Defaults to all hours of the forecast days", example = "24")
         },
         responses = {
             @ApiResponse(responseCode = "200", description = "Weather forecast data retrieved successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid coordinates provided"),
+            @ApiResponse(responseCode = "400", description = "Invalid coordinates, unknown format or invalid selection provided"),
             @ApiResponse(responseCode = "500", description = "Error retrieving weather data from Open-Meteo API")
         }
     )
     @GetMapping("/forecast")
-    public ResponseEntity<WeatherLocationDto> WeatherLocationData(
+    public Mono<ResponseEntity<?>> WeatherLocationData(
         @RequestParam double latitude,
-        @RequestParam double longitude) {
-            return ResponseEntity.ok(weatherService.getWeatherData(latitude, longitude));
+        @RequestParam double longitude,
+        @RequestParam(defaultValue = "default") String format,
+        @RequestParam(required = false) List<String> sections,
+        @RequestParam(required = false) List<String> variables,
+        @RequestParam(required = false) Integer days,
+        @RequestParam(required = false) Integer hours) {
+            ForecastSelection selection;
+            try {
+                selection = ForecastSelection.of(sections, variables, days, hours);
+            } catch (IllegalArgumentException e) {
+                return Mono.just(ResponseEntity.badRequest().body(e.getMessage()));
+            }
+            if ("columnar".equalsIgnoreCase(format)) {
+                return weatherService.getForecastColumns(latitude, longitude, selection).map(ResponseEntity::ok);
+            }
+            if (!"default".equalsIgnoreCase(format)) {
+                return Mono.just(ResponseEntity.badRequest().body("Unknown format: " + format));
+            }
+            if (variables != null) {
+                return Mono.just(ResponseEntity.badRequest().body("variables requires format=columnar"));
+            }
+            return weatherService.getWeatherData(latitude, longitude, selection).map(ResponseEntity::ok);
         }
 
 
@@ -0,0 +1,24 @@
+package com.travelbuddy.travelbuddy.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of a keyset-paginated listing.
+ *
+ * Rows are ordered by id. {@code nextCursor} is the id of the last row on the page and
+ * is passed back as {@code after} to fetch the next page; it is null on the last page.
+ * Unlike offset paging, a cursor stays valid when rows are inserted or deleted meanwhile.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDto<T> {
+    private List<T> items;
+    private Long nextCursor;
+}
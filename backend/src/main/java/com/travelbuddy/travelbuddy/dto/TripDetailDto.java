@@ -0,0 +1,63 @@
+package com.travelbuddy.travelbuddy.dto;
+
+import com.travelbuddy.travelbuddy.service.OverpassService;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the trip detail view: the trip, its locations, and the weather and
+ * points of interest at the destination. Weather and points of interest come from upstream
+ * services and are returned as parts with their own status, so the view can render whatever
+ * is available.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripDetailDto {
+
+    private TripDto trip;
+    private List<LocationDto> locations;
+    // Forecast for the destination, limited to the trip dates
+    private Part<WeatherForecastColumnsDto> weather;
+    private Part<List<OverpassService.PointOfInterest>> pointsOfInterest;
+
+    /**
+     * Outcome of one part of the detail view.
+     */
+    public enum Status {
+        // The data is present
+        OK,
+        // Not requested, or the trip has no coordinates
+        SKIPPED,
+        // The part's deadline passed before the upstream answered
+        TIMEOUT,
+        // The upstream failed or is unavailable
+        UNAVAILABLE
+    }
+
+    /**
+     * One independently loaded part; {@code data} is null unless the status is OK.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Part<T> {
+        private Status status;
+        private T data;
+        private String message;
+
+        public static <T> Part<T> ok(T data) {
+            return new Part<>(Status.OK, data, null);
+        }
+
+        public static <T> Part<T> of(Status status, String message) {
+            return new Part<>(status, null, message);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.travelbuddy.travelbuddy.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the weather along a trip: one forecast for the trip destination and
+ * one for each saved location, each limited to the trip's dates.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripWeatherDto {
+
+    private Long tripId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<Point> points;
+
+    /**
+     * Forecast for one point of the trip.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Point {
+        private String name;
+        // Id of the saved location, or null for the trip destination
+        private Long locationId;
+        private double latitude;
+        private double longitude;
+        private WeatherForecastColumnsDto forecast;
+    }
+}
@@ -0,0 +1,91 @@
+package com.travelbuddy.travelbuddy.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/**
+ * Columnar Data Transfer Object for weather information.
+ *
+ * Mirrors the layout of the Open-Meteo response: every hourly and daily variable is one
+ * primitive array, and index i of every array in a section belongs to the same hour or day.
+ * Times are epoch seconds (UTC); {@code timezone} and {@code timezoneOffset} give the local
+ * zone of the location. This is the compact form used by the forecast cache and the
+ * {@code format=columnar} variant of the forecast endpoint.
+ * Sections and variables left out of a request are null and omitted from the JSON.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WeatherForecastColumnsDto {
+
+    private double latitude;
+    private double longitude;
+    private String timezone;
+    private long timezoneOffset;
+    private double elevation;
+
+    private Current current;
+    private Hourly hourly;
+    private Daily daily;
+
+    /**
+     * Current conditions at the time of the request.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Current {
+        private long time;
+        private int weatherCode;
+        private double temperature;
+        private double apparentTemperature;
+        private int humidity;
+        private double precipitation;
+    }
+
+    /**
+     * Hourly forecast, one array element per hour.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Hourly {
+        private long[] time;
+        private double[] temperature;
+        private double[] apparentTemperature;
+        private int[] humidity;
+        private int[] cloudCover;
+        private int[] weatherCode;
+        private double[] windSpeed;
+        private int[] precipitationProbability;
+    }
+
+    /**
+     * Daily forecast, one array element per day. {@code time} is local midnight of each day.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Daily {
+        private long[] time;
+        private int[] weatherCode;
+        private double[] tempMin;
+        private double[] tempMax;
+        private long[] sunrise;
+        private long[] sunset;
+        private double[] rainSum;
+        private double[] snowfallSum;
+        private int[] precipitationProbability;
+    }
+}
@@ -0,0 +1,52 @@
+package com.travelbuddy.travelbuddy.model;
+
+/**
+ * Latitude/longitude rectangle that encloses a circle on the earth's surface.
+ * Used to prefilter spatial queries on indexed coordinate columns before the exact
+ * (and much more expensive) great-circle distance is computed.
+ */
+public record BoundingBox(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    /**
+     * Computes the bounding box of a circle.
+     *
+     * Near the poles, or when the circle crosses the antimeridian, the longitude range
+     * is widened to the full [-180, 180] so that no point inside the circle is excluded.
+     *
+     * @param latitude centre latitude in degrees
+     * @param longitude centre longitude in degrees
+     * @param radiusKm circle radius in kilometres
+     * @return the enclosing bounding box
+     */
+    public static BoundingBox around(double latitude, double longitude, double radiusKm) {
+        double deltaLat = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double minLat = Math.max(-90.0, latitude - deltaLat);
+        double maxLat = Math.min(90.0, latitude + deltaLat);
+
+        if (minLat <= -90.0 || maxLat >= 90.0) {
+            return new BoundingBox(minLat, maxLat, -180.0, 180.0);
+        }
+        double deltaLon = Math.toDegrees(Math.asin(Math.min(1.0,
+                Math.sin(radiusKm / EARTH_RADIUS_KM) / Math.cos(Math.toRadians(latitude)))));
+        double minLon = longitude - deltaLon;
+        double maxLon = longitude + deltaLon;
+        if (minLon < -180.0 || maxLon > 180.0) {
+            return new BoundingBox(minLat, maxLat, -180.0, 180.0);
+        }
+        return new BoundingBox(minLat, maxLat, minLon, maxLon);
+    }
+
+    /**
+     * Great-circle distance between two coordinates in kilometres (Haversine formula).
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
@@ -9,9 +9,10 @@ import lombok.Builder;
 /**
  * Represents a geographical location in the TravelBuddy application.
  * This entity is mapped to the 'locations' table in the database.
+ * The composite coordinate index backs the bounding-box prefilter of radius searches.
  */
 @Entity
-@Table(name = "locations")
+@Table(name = "locations", indexes = @Index(name = "idx_locations_lat_lon", columnList = "latitude, longitude"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,60 @@
+package com.travelbuddy.travelbuddy.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * Represents a long-lived refresh token that can be exchanged for a new access token.
+ * This entity is mapped to the 'refresh_tokens' table in the database.
+ * Only the SHA-256 hash of the token is stored, so a leaked table cannot be replayed.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = @Index(name = "idx_refresh_tokens_hash", columnList = "token_hash", unique = true))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Hex-encoded SHA-256 hash of the token handed to the client.
+     */
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    /**
+     * The user the token belongs to. Tokens are deleted together with their user.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * When the token was used (and replaced) or revoked; null while it is still usable.
+     */
+    private Instant revokedAt;
+
+    /**
+     * When the token was used and replaced by a new one; null if it was never used. A replaced
+     * token that shows up again was copied, unlike one revoked at logout or password change.
+     */
+    private Instant replacedAt;
+}
@@ -0,0 +1,41 @@
+package com.travelbuddy.travelbuddy.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.Instant;
+
+/**
+ * Represents a JWT signing key shared by all application instances.
+ * This entity is mapped to the 'jwt_signing_keys' table in the database.
+ */
+@Entity
+@Table(name = "jwt_signing_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SigningKey {
+
+    /**
+     * The key id, written to the 'kid' header of every token signed with this key.
+     */
+    @Id
+    @Column(length = 36)
+    private String kid;
+
+    /**
+     * The Base64-encoded HS256 secret.
+     */
+    @Column(nullable = false, length = 128)
+    private String secret;
+
+    /**
+     * When the key was created. The newest key signs new tokens; older keys only verify.
+     */
+    @Column(nullable = false)
+    private Instant createdAt;
+}
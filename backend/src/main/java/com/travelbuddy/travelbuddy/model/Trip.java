@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -15,6 +16,9 @@ import java.util.Set;
 /**
  * Represents a trip in the TravelBuddy application.
  * This entity is mapped to the 'trips' table in the database.
+ *
+ * All associations are lazy. List queries in TripRepository fetch the organizer and
+ * participants with an entity graph; locations are loaded in batches when first accessed.
  */
 
 @Entity
@@ -55,6 +59,7 @@ public class Trip {
     private User organizer;
 
     @ManyToMany
+    @BatchSize(size = 50)
     @JoinTable(
         name = "trip_participants",
         joinColumns = @JoinColumn(name = "trip_id"),
@@ -68,7 +73,8 @@ public class Trip {
     @Builder.Default
     private TripStatus status = TripStatus.PLANNING;
 
-    @OneToMany(mappedBy = "trip", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "trip", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @Builder.Default
     private List<Location> locations = new ArrayList<>();
 
@@ -1,7 +1,10 @@
 package com.travelbuddy.travelbuddy.repository;
 
+import com.travelbuddy.travelbuddy.model.BoundingBox;
 import com.travelbuddy.travelbuddy.model.Location;
 import com.travelbuddy.travelbuddy.model.Trip;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,19 +24,80 @@ public interface LocationRepository extends JpaRepository<Location, Long> {
      */
     List<Location> findByTrip(Trip trip);
     
+    // Great-circle distance in km between (:lat, :lon) and a row; the cosine is clamped
+    // to [-1, 1] because rounding can push it slightly outside the domain of acos.
+    String DISTANCE_KM = "6371 * acos(least(1.0, greatest(-1.0, " +
+            "cos(radians(:lat)) * cos(radians(latitude)) * cos(radians(longitude) - radians(:lon)) + " +
+            "sin(radians(:lat)) * sin(radians(latitude)))))";
+
+    // Prefilter on the indexed coordinate columns so only rows inside the circle's
+    // bounding box need the trigonometric distance check.
+    String WITHIN_BOX_AND_RADIUS = " FROM locations WHERE " +
+            "latitude BETWEEN :minLat AND :maxLat AND longitude BETWEEN :minLon AND :maxLon " +
+            "AND " + DISTANCE_KM + " < :radius";
+
+    // Nearest first; equally distant rows by id, so that pages neither repeat nor skip them.
+    String NEAREST_FIRST = " ORDER BY " + DISTANCE_KM + ", id";
+
     /**
-     * Finds locations within a certain radius of given coordinates.
-     * Uses the Haversine formula to calculate distances.
+     * Finds locations within a certain radius of given coordinates, nearest first.
+     * Uses a bounding-box prefilter on the coordinate index and the Haversine formula
+     * to refine the candidates.
      */
-    @Query(value = "SELECT * FROM locations WHERE " +
-           "6371 * acos(cos(radians(:lat)) * cos(radians(latitude)) * " +
-           "cos(radians(longitude) - radians(:lon)) + " +
-           "sin(radians(:lat)) * sin(radians(latitude))) < :radius", 
+    default List<Location> findLocationsWithinRadius(Double latitude, Double longitude, Double radiusInKm) {
+        BoundingBox box = BoundingBox.around(latitude, longitude, radiusInKm);
+        return findWithinRadius(latitude, longitude, radiusInKm,
+                box.minLatitude(), box.maxLatitude(), box.minLongitude(), box.maxLongitude());
+    }
+
+    /**
+     * Finds one page of the locations within a radius of given coordinates, nearest first.
+     */
+    default Page<Location> findLocationsWithinRadius(Double latitude, Double longitude, Double radiusInKm, Pageable pageable) {
+        BoundingBox box = BoundingBox.around(latitude, longitude, radiusInKm);
+        return findPageWithinRadius(latitude, longitude, radiusInKm,
+                box.minLatitude(), box.maxLatitude(), box.minLongitude(), box.maxLongitude(), pageable);
+    }
+
+    @Query(value = "SELECT *" + WITHIN_BOX_AND_RADIUS + NEAREST_FIRST, nativeQuery = true)
+    List<Location> findWithinRadius(
+        @Param("lat") Double latitude,
+        @Param("lon") Double longitude,
+        @Param("radius") Double radiusInKm,
+        @Param("minLat") Double minLatitude,
+        @Param("maxLat") Double maxLatitude,
+        @Param("minLon") Double minLongitude,
+        @Param("maxLon") Double maxLongitude
+    );
+
+    @Query(value = "SELECT *" + WITHIN_BOX_AND_RADIUS + NEAREST_FIRST,
+           countQuery = "SELECT count(*)" + WITHIN_BOX_AND_RADIUS,
            nativeQuery = true)
-    List<Location> findLocationsWithinRadius(
+    Page<Location> findPageWithinRadius(
+        @Param("lat") Double latitude,
+        @Param("lon") Double longitude,
+        @Param("radius") Double radiusInKm,
+        @Param("minLat") Double minLatitude,
+        @Param("maxLat") Double maxLatitude,
+        @Param("minLon") Double minLongitude,
+        @Param("maxLon") Double maxLongitude,
+        Pageable pageable
+    );
+
+    /**
+     * Finds at most {@code limit} locations within a radius, nearest first.
+     * Building block for k-nearest-neighbour search, see LocationService.findNearest.
+     */
+    @Query(value = "SELECT *" + WITHIN_BOX_AND_RADIUS + NEAREST_FIRST + " LIMIT :limit", nativeQuery = true)
+    List<Location> findNearestWithinRadius(
         @Param("lat") Double latitude,
         @Param("lon") Double longitude,
-        @Param("radius") Double radiusInKm
+        @Param("radius") Double radiusInKm,
+        @Param("minLat") Double minLatitude,
+        @Param("maxLat") Double maxLatitude,
+        @Param("minLon") Double minLongitude,
+        @Param("maxLon") Double maxLongitude,
+        @Param("limit") int limit
     );
 
     boolean existsByNameAndTrip(String name, Trip trip);
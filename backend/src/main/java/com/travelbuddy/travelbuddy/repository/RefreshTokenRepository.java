@@ -0,0 +1,53 @@
+package com.travelbuddy.travelbuddy.repository;
+
+import com.travelbuddy.travelbuddy.model.RefreshToken;
+import com.travelbuddy.travelbuddy.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Repository interface for RefreshToken entities.
+ * Tokens are looked up by the unique index on their hash.
+ */
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Finds a token by its hash and locks the row, so that two concurrent refreshes
+     * with the same token cannot both succeed.
+     *
+     * @param tokenHash the hex-encoded SHA-256 hash of the token
+     * @return the token together with its user, or empty if unknown
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = "user")
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Revokes every usable token of a user.
+     *
+     * @param user the user whose tokens are revoked
+     * @param now the revocation time
+     * @return the number of revoked tokens
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.user = :user AND t.revokedAt IS NULL")
+    int revokeAllByUser(@Param("user") User user, @Param("now") Instant now);
+
+    /**
+     * Deletes tokens that have expired.
+     *
+     * @param now the current time
+     * @return the number of deleted tokens
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,32 @@
+package com.travelbuddy.travelbuddy.repository;
+
+import com.travelbuddy.travelbuddy.model.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for SigningKey entities.
+ * Provides access to the JWT key ring shared by all application instances.
+ */
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+
+    /**
+     * Finds the keys created after a point in time, newest first.
+     *
+     * @param cutoff keys created at or before this instant are ignored
+     * @return the keys still valid for verification
+     */
+    List<SigningKey> findByCreatedAtAfterOrderByCreatedAtDesc(Instant cutoff);
+
+    /**
+     * Deletes keys that no longer verify any unexpired token.
+     *
+     * @param cutoff keys created before this instant are deleted
+     * @return the number of deleted keys
+     */
+    @Transactional
+    long deleteByCreatedAtBefore(Instant cutoff);
+}
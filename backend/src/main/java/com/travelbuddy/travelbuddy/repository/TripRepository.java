@@ -3,6 +3,8 @@ package com.travelbuddy.travelbuddy.repository;
 import com.travelbuddy.travelbuddy.model.Trip;
 import com.travelbuddy.travelbuddy.model.TripStatus;
 import com.travelbuddy.travelbuddy.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,41 +12,86 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for Trip entities.
  * Provides CRUD operations and custom queries for Trip objects.
+ *
+ * Queries that feed TripMapper load the organizer and participants in the same query
+ * through an entity graph, so mapping a list of N trips does not issue 2N extra selects.
+ * Locations cannot be fetched in the same query (two collections would multiply the rows)
+ * and are batch-loaded instead, see Trip.
  */
 @Repository
 public interface TripRepository extends JpaRepository<Trip, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = {"organizer", "participants"})
+    List<Trip> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"organizer", "participants"})
+    Optional<Trip> findById(Long id);
     
     /**
      * Finds all trips organized by a specific user.
      */
+    @EntityGraph(attributePaths = {"organizer", "participants"})
     List<Trip> findByOrganizer(User organizer);
+
+    /**
+     * Finds a trip with its locations, for views that need every point of the trip.
+     */
+    @EntityGraph(attributePaths = "locations")
+    Optional<Trip> findWithLocationsById(Long id);
     
     /**
      * Finds all trips where a user is a participant.
+     * Filters with MEMBER OF rather than joining participants, so the fetched
+     * participant set is complete and trips are not duplicated.
      */
-    @Query("SELECT t FROM Trip t JOIN t.participants p WHERE p = :user")
+    @EntityGraph(attributePaths = {"organizer", "participants"})
+    @Query("SELECT t FROM Trip t WHERE :user MEMBER OF t.participants")
     List<Trip> findByParticipant(@Param("user") User user);
     
     /**
      * Finds trips by their status.
      */
+    @EntityGraph(attributePaths = {"organizer", "participants"})
     List<Trip> findByStatus(TripStatus status);
     
     /**
      * Finds trips that are happening between two dates.
      */
+    @EntityGraph(attributePaths = {"organizer", "participants"})
     @Query("SELECT t FROM Trip t WHERE t.startDate <= :endDate AND t.endDate >= :startDate")
     List<Trip> findTripsBetweenDates(@Param("startDate") LocalDate startDate, 
                                     @Param("endDate") LocalDate endDate);
+
+    /**
+     * Finds trips that are happening between two dates, with their locations instead of
+     * the organizer and participants. Used to pre-warm forecasts for every point of a trip.
+     */
+    @EntityGraph(attributePaths = "locations")
+    @Query("SELECT t FROM Trip t WHERE t.startDate <= :endDate AND t.endDate >= :startDate")
+    List<Trip> findWithLocationsBetweenDates(@Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
     
     /**
      * Finds trips by destination (case-insensitive partial match).
      */
+    @EntityGraph(attributePaths = {"organizer", "participants"})
     List<Trip> findByDestinationContainingIgnoreCase(String destination);
 
+    /**
+     * Finds the next trips after a keyset cursor, ordered by id.
+     * Only the organizer is fetched eagerly: fetching a collection together with a row
+     * limit would make Hibernate apply the limit in memory. Participants and locations
+     * are batch-loaded instead.
+     */
+    @EntityGraph(attributePaths = "organizer")
+    List<Trip> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
     boolean existsByTitleAndOrganizer(String title, User organizer);
 } 
\ No newline at end of file
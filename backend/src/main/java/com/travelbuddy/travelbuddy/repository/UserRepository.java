@@ -1,7 +1,10 @@
 package com.travelbuddy.travelbuddy.repository;
 
 import com.travelbuddy.travelbuddy.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -42,4 +45,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return true if a user exists with the email, false otherwise
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Finds the next users after a keyset cursor, ordered by id.
+     *
+     * @param id the id of the last user already returned (0 for the first page)
+     * @param limit maximum number of users to return
+     * @return up to limit users with an id greater than the given one
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 } 
\ No newline at end of file
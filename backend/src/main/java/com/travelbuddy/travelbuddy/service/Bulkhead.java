@@ -0,0 +1,137 @@
+package com.travelbuddy.travelbuddy.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking concurrency limit for one upstream.
+ *
+ * At most {@code maxConcurrent} requests run at once; up to {@code maxQueued} more wait in FIFO
+ * order without holding a thread, and anything beyond that is rejected immediately with
+ * {@link UpstreamResilience.UpstreamUnavailableException}. A waiter that is cancelled (for example
+ * by its deadline) leaves the queue. Each upstream has its own bulkhead, so a saturated upstream
+ * only delays and rejects its own callers.
+ *
+ * Exported per upstream: {@code travelbuddy.upstream.bulkhead.active} and {@code .queued} gauges,
+ * the {@code .wait} timer (time spent queued) and the {@code .rejected} counter.
+ */
+final class Bulkhead {
+
+    private final String upstream;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    private final Deque<Waiter> waiting = new ArrayDeque<>();
+    private int active;
+
+    Bulkhead(String upstream, int maxConcurrent, int maxQueued, MeterRegistry meterRegistry) {
+        this.upstream = upstream;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.waitTimer = meterRegistry.timer("travelbuddy.upstream.bulkhead.wait", "upstream", upstream);
+        this.rejected = meterRegistry.counter("travelbuddy.upstream.bulkhead.rejected", "upstream", upstream);
+        Tags tags = Tags.of("upstream", upstream);
+        meterRegistry.gauge("travelbuddy.upstream.bulkhead.active", tags, this, Bulkhead::activeCount);
+        meterRegistry.gauge("travelbuddy.upstream.bulkhead.queued", tags, this, Bulkhead::queuedCount);
+    }
+
+    /**
+     * Runs a request once a slot is free, holding the slot until the request terminates or is cancelled.
+     */
+    <T> Mono<T> run(Supplier<Mono<T>> request) {
+        return Mono.usingWhen(acquire(),
+                permit -> request.get(),
+                permit -> Mono.fromRunnable(permit::release),
+                (permit, error) -> Mono.fromRunnable(permit::release),
+                permit -> Mono.fromRunnable(permit::release));
+    }
+
+    synchronized int activeCount() {
+        return active;
+    }
+
+    synchronized int queuedCount() {
+        return waiting.size();
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Permit permit = new Permit();
+            synchronized (this) {
+                if (active < maxConcurrent) {
+                    active++;
+                } else if (waiting.size() < maxQueued) {
+                    waiting.add(new Waiter(sink, permit, System.nanoTime()));
+                    sink.onCancel(() -> leave(permit));
+                    return;
+                } else {
+                    rejected.increment();
+                    sink.error(new UpstreamResilience.UpstreamUnavailableException(
+                            upstream + " bulkhead is full", null));
+                    return;
+                }
+            }
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            sink.success(permit);
+        });
+    }
+
+    /**
+     * Removes a cancelled waiter. If it was granted a slot in the meantime, the slot is released.
+     */
+    private void leave(Permit permit) {
+        boolean removed;
+        synchronized (this) {
+            removed = waiting.removeIf(waiter -> waiter.permit() == permit);
+        }
+        if (!removed) {
+            permit.release();
+        }
+    }
+
+    /**
+     * Hands a freed slot to the next waiter, or returns it to the pool.
+     */
+    private void releaseSlot() {
+        Waiter next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                active--;
+                return;
+            }
+        }
+        waitTimer.record(System.nanoTime() - next.queuedAt(), TimeUnit.NANOSECONDS);
+        next.sink().success(next.permit());
+    }
+
+    private record Waiter(MonoSink<Permit> sink, Permit permit, long queuedAt) {
+    }
+
+    /**
+     * One slot. Releasing is idempotent, since cancellation and termination can race.
+     */
+    private final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                releaseSlot();
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.travelbuddy.travelbuddy.dto.WeatherForecastColumnsDto;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The part of a forecast a client asks for: which sections (current, hourly, daily), which
+ * hourly and daily variables, how many days and optionally how many hours from now.
+ *
+ * A selection maps to a narrower Open-Meteo query ({@link #upstreamQuery()}), and a forecast
+ * fetched for a wider selection can serve a narrower one ({@link #covers(ForecastSelection)},
+ * {@link #project(WeatherForecastColumnsDto, ForecastSelection, Instant)}). Variables are named
+ * as the fields of {@link WeatherForecastColumnsDto}; the current conditions are always complete.
+ */
+public record ForecastSelection(boolean current, Set<String> hourly, Set<String> daily, int days, Integer hours) {
+
+    public static final int MAX_DAYS = 16;
+    public static final int DEFAULT_DAYS = 7;
+
+    // Variable name -> Open-Meteo variable, in the order of the DTO fields
+    private static final Map<String, String> HOURLY_VARIABLES = new LinkedHashMap<>();
+    private static final Map<String, String> DAILY_VARIABLES = new LinkedHashMap<>();
+    static {
+        HOURLY_VARIABLES.put("temperature", "temperature_2m");
+        HOURLY_VARIABLES.put("apparentTemperature", "apparent_temperature");
+        HOURLY_VARIABLES.put("humidity", "relative_humidity_2m");
+        HOURLY_VARIABLES.put("cloudCover", "cloud_cover");
+        HOURLY_VARIABLES.put("weatherCode", "weather_code");
+        HOURLY_VARIABLES.put("windSpeed", "wind_speed_10m");
+        HOURLY_VARIABLES.put("precipitationProbability", "precipitation_probability");
+        DAILY_VARIABLES.put("weatherCode", "weather_code");
+        DAILY_VARIABLES.put("tempMin", "temperature_2m_min");
+        DAILY_VARIABLES.put("tempMax", "temperature_2m_max");
+        DAILY_VARIABLES.put("sunrise", "sunrise");
+        DAILY_VARIABLES.put("sunset", "sunset");
+        DAILY_VARIABLES.put("rainSum", "rain_sum");
+        DAILY_VARIABLES.put("snowfallSum", "snowfall_sum");
+        DAILY_VARIABLES.put("precipitationProbability", "precipitation_probability_mean");
+    }
+
+    private static final String CURRENT_QUERY =
+            "temperature_2m,relative_humidity_2m,apparent_temperature,precipitation,weather_code";
+
+    /**
+     * Everything: current conditions, all variables, {@value #DEFAULT_DAYS} days.
+     */
+    public static final ForecastSelection FULL = new ForecastSelection(true,
+            Set.copyOf(HOURLY_VARIABLES.keySet()), Set.copyOf(DAILY_VARIABLES.keySet()), DEFAULT_DAYS, null);
+
+    /**
+     * Builds a selection from request parameters.
+     *
+     * @param sections  sections to include ("current", "hourly", "daily"), or null for all
+     * @param variables hourly and daily variables to include, or null for all; each applies to
+     *                  the requested sections that have it, and sections left without variables are dropped
+     * @param days      number of days, 1 to {@value #MAX_DAYS}, or null for {@value #DEFAULT_DAYS}
+     * @param hours     number of hourly entries from the current hour, or null for all hours of the days
+     * @return the selection
+     * @throws IllegalArgumentException if a parameter is unknown or out of range
+     */
+    public static ForecastSelection of(List<String> sections, List<String> variables, Integer days, Integer hours) {
+        int dayCount = days == null ? DEFAULT_DAYS : days;
+        if (dayCount < 1 || dayCount > MAX_DAYS) {
+            throw new IllegalArgumentException("days must be between 1 and " + MAX_DAYS);
+        }
+        if (hours != null && (hours < 1 || hours > MAX_DAYS * 24)) {
+            throw new IllegalArgumentException("hours must be between 1 and " + MAX_DAYS * 24);
+        }
+
+        boolean current = sections == null;
+        boolean hourly = sections == null;
+        boolean daily = sections == null;
+        if (sections != null) {
+            for (String section : sections) {
+                switch (section.trim().toLowerCase(Locale.ROOT)) {
+                    case "current" -> current = true;
+                    case "hourly" -> hourly = true;
+                    case "daily" -> daily = true;
+                    default -> throw new IllegalArgumentException("Unknown section: " + section);
+                }
+            }
+        }
+
+        Set<String> hourlyVariables = hourly ? new LinkedHashSet<>(HOURLY_VARIABLES.keySet()) : new LinkedHashSet<>();
+        Set<String> dailyVariables = daily ? new LinkedHashSet<>(DAILY_VARIABLES.keySet()) : new LinkedHashSet<>();
+        if (variables != null) {
+            Set<String> requested = variables.stream().map(String::trim).collect(Collectors.toSet());
+            for (String variable : requested) {
+                if (!HOURLY_VARIABLES.containsKey(variable) && !DAILY_VARIABLES.containsKey(variable)) {
+                    throw new IllegalArgumentException("Unknown variable: " + variable);
+                }
+            }
+            hourlyVariables.retainAll(requested);
+            dailyVariables.retainAll(requested);
+            if (hourlyVariables.isEmpty() && dailyVariables.isEmpty() && (hourly || daily)) {
+                throw new IllegalArgumentException("None of the variables is available in the requested sections");
+            }
+        }
+        if (!current && hourlyVariables.isEmpty() && dailyVariables.isEmpty()) {
+            throw new IllegalArgumentException("No sections requested");
+        }
+        return new ForecastSelection(current, Set.copyOf(hourlyVariables), Set.copyOf(dailyVariables), dayCount,
+                hourlyVariables.isEmpty() ? null : hours);
+    }
+
+    /**
+     * Returns the Open-Meteo query parameters for this selection, starting with '&amp;'.
+     * Equal selections produce equal queries, so the query also serves as a key.
+     */
+    public String upstreamQuery() {
+        StringBuilder query = new StringBuilder();
+        if (!daily.isEmpty()) {
+            query.append("&daily=").append(upstreamNames(DAILY_VARIABLES, daily));
+        }
+        if (!hourly.isEmpty()) {
+            query.append("&hourly=").append(upstreamNames(HOURLY_VARIABLES, hourly));
+        }
+        if (current) {
+            query.append("&current=").append(CURRENT_QUERY);
+        }
+        query.append("&forecast_days=").append(days);
+        if (hours != null) {
+            query.append("&forecast_hours=").append(hours);
+        }
+        return query.toString();
+    }
+
+    /**
+     * Checks whether a forecast fetched for this selection contains everything the other one asks for.
+     */
+    public boolean covers(ForecastSelection other) {
+        if ((other.current && !current) || !hourly.containsAll(other.hourly) || !daily.containsAll(other.daily)) {
+            return false;
+        }
+        if (!other.daily.isEmpty() && other.days > days) {
+            return false;
+        }
+        if (other.hourly.isEmpty()) {
+            return true;
+        }
+        if (hours == null) {
+            // All hours of our days; the current hour lies within the first of them
+            return other.hours == null ? other.days <= days : other.hours <= (days - 1) * 24;
+        }
+        return other.hours != null && other.hours <= hours;
+    }
+
+    /**
+     * Cuts a forecast fetched for a covering selection down to this selection. The forecast
+     * itself is not modified, as it may be shared with the cache.
+     *
+     * @param forecast the forecast
+     * @param fetchedFor the selection the forecast was fetched for
+     * @param now the current time, where a limited number of hours starts
+     * @return the forecast restricted to this selection
+     */
+    public WeatherForecastColumnsDto project(WeatherForecastColumnsDto forecast, ForecastSelection fetchedFor, Instant now) {
+        if (equals(fetchedFor)) {
+            return forecast;
+        }
+
+        WeatherForecastColumnsDto.Hourly hourlyColumns = forecast.getHourly();
+        WeatherForecastColumnsDto.Hourly projectedHourly = null;
+        if (!hourly.isEmpty() && hourlyColumns != null && hourlyColumns.getTime() != null) {
+            long[] times = hourlyColumns.getTime();
+            int first = 0;
+            int count = days * 24;
+            if (hours != null) {
+                // Start at the hour that contains now
+                first = WeatherService.indexOf(times, now.getEpochSecond() - 3599);
+                count = hours;
+            }
+            int last = Math.min(times.length, first + count);
+            projectedHourly = new WeatherForecastColumnsDto.Hourly(
+                WeatherService.slice(times, first, last),
+                hourly.contains("temperature") ? WeatherService.slice(hourlyColumns.getTemperature(), first, last) : null,
+                hourly.contains("apparentTemperature") ? WeatherService.slice(hourlyColumns.getApparentTemperature(), first, last) : null,
+                hourly.contains("humidity") ? WeatherService.slice(hourlyColumns.getHumidity(), first, last) : null,
+                hourly.contains("cloudCover") ? WeatherService.slice(hourlyColumns.getCloudCover(), first, last) : null,
+                hourly.contains("weatherCode") ? WeatherService.slice(hourlyColumns.getWeatherCode(), first, last) : null,
+                hourly.contains("windSpeed") ? WeatherService.slice(hourlyColumns.getWindSpeed(), first, last) : null,
+                hourly.contains("precipitationProbability") ? WeatherService.slice(hourlyColumns.getPrecipitationProbability(), first, last) : null);
+        }
+
+        WeatherForecastColumnsDto.Daily dailyColumns = forecast.getDaily();
+        WeatherForecastColumnsDto.Daily projectedDaily = null;
+        if (!daily.isEmpty() && dailyColumns != null && dailyColumns.getTime() != null) {
+            int last = Math.min(dailyColumns.getTime().length, days);
+            projectedDaily = new WeatherForecastColumnsDto.Daily(
+                WeatherService.slice(dailyColumns.getTime(), 0, last),
+                daily.contains("weatherCode") ? WeatherService.slice(dailyColumns.getWeatherCode(), 0, last) : null,
+                daily.contains("tempMin") ? WeatherService.slice(dailyColumns.getTempMin(), 0, last) : null,
+                daily.contains("tempMax") ? WeatherService.slice(dailyColumns.getTempMax(), 0, last) : null,
+                daily.contains("sunrise") ? WeatherService.slice(dailyColumns.getSunrise(), 0, last) : null,
+                daily.contains("sunset") ? WeatherService.slice(dailyColumns.getSunset(), 0, last) : null,
+                daily.contains("rainSum") ? WeatherService.slice(dailyColumns.getRainSum(), 0, last) : null,
+                daily.contains("snowfallSum") ? WeatherService.slice(dailyColumns.getSnowfallSum(), 0, last) : null,
+                daily.contains("precipitationProbability") ? WeatherService.slice(dailyColumns.getPrecipitationProbability(), 0, last) : null);
+        }
+
+        return new WeatherForecastColumnsDto(
+            forecast.getLatitude(),
+            forecast.getLongitude(),
+            forecast.getTimezone(),
+            forecast.getTimezoneOffset(),
+            forecast.getElevation(),
+            current ? forecast.getCurrent() : null,
+            projectedHourly,
+            projectedDaily);
+    }
+
+    private static String upstreamNames(Map<String, String> variables, Set<String> selected) {
+        return variables.entrySet().stream()
+                .filter(variable -> selected.contains(variable.getKey()))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.joining(","));
+    }
+}
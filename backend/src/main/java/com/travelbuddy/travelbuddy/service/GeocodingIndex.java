@@ -0,0 +1,476 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Local geocoding index that learns from Nominatim results.
+ *
+ * Every successful Nominatim search is recorded here and appended to a JSON-lines file,
+ * so the index survives restarts. Only an exact match on a previously seen query
+ * ({@link #search}) is authoritative and spares {@link GeocodingService} the Nominatim request;
+ * it keeps Nominatim's ranking. Prefix matches on place names (via a sorted map) and
+ * typo-tolerant matches (via a trigram index verified by edit distance) are only
+ * suggestions ({@link #suggest}): "bern" is a prefix of "Bernau" and one edit away from
+ * "Berlin", yet means neither, so they are served to typeaheads, where the user picks from
+ * them, and when Nominatim is unavailable.
+ *
+ * Queries Nominatim found nothing for are remembered in memory for {@code negative-ttl}, so
+ * repeating them does not cost another request. The index holds at most {@code max-queries}
+ * queries; beyond that the oldest learned ones are dropped, along with places no other query
+ * refers to, and the file is rewritten once it holds twice as many lines as the index.
+ */
+@Component
+public class GeocodingIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(GeocodingIndex.class);
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private final ObjectMapper objectMapper;
+    private final Path indexFile;
+    private final Counter hits;
+    private final Counter misses;
+    private final int maxQueries;
+    private final Duration negativeTtl;
+    private final Clock clock;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Normalized query -> results in Nominatim's order, oldest learned first
+    private final LinkedHashMap<String, List<GeocodingService.LocationInfo>> queries = new LinkedHashMap<>();
+    // Normalized query Nominatim had no results for -> until when that is trusted, oldest first
+    private final LinkedHashMap<String, Instant> negatives = new LinkedHashMap<>();
+    // Normalized place name (full display name and its first component) -> places
+    private final TreeMap<String, Set<GeocodingService.LocationInfo>> names = new TreeMap<>();
+    // Trigram of a normalized first name component -> names containing it
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    // Deduplicates places learned from different queries
+    private final Map<String, GeocodingService.LocationInfo> places = new HashMap<>();
+    // Place key -> number of queries whose results include the place
+    private final Map<String, Integer> placeUses = new HashMap<>();
+    // Lines in the index file; guarded by this, like the file itself
+    private int fileLines;
+
+    @Autowired
+    public GeocodingIndex(
+            ObjectMapper objectMapper,
+            @Value("${travelbuddy.geocoding.index-file:data/geocoding-index.jsonl}") String indexFile,
+            @Value("${travelbuddy.geocoding.index-max-queries:50000}") int maxQueries,
+            @Value("${travelbuddy.geocoding.negative-ttl:PT24H}") Duration negativeTtl,
+            MeterRegistry meterRegistry) {
+        this(objectMapper, indexFile, maxQueries, negativeTtl, meterRegistry, Clock.systemUTC());
+    }
+
+    GeocodingIndex(ObjectMapper objectMapper, String indexFile, int maxQueries, Duration negativeTtl,
+            MeterRegistry meterRegistry, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.indexFile = Path.of(indexFile);
+        this.maxQueries = maxQueries;
+        this.negativeTtl = negativeTtl;
+        this.clock = clock;
+        this.hits = meterRegistry.counter("travelbuddy.geocoding.index.hits");
+        this.misses = meterRegistry.counter("travelbuddy.geocoding.index.misses");
+        meterRegistry.gauge("travelbuddy.geocoding.index.places", this, GeocodingIndex::size);
+    }
+
+    /**
+     * Loads previously learned queries from the index file, if it exists.
+     */
+    @PostConstruct
+    void load() {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        int loaded = 0;
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                fileLines++;
+                try {
+                    LearnedQuery learned = objectMapper.readValue(line, LearnedQuery.class);
+                    index(learned.query(), learned.results().stream().map(IndexedPlace::toLocationInfo).toList());
+                    loaded++;
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable geocoding index line: {}", e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not read geocoding index {}", indexFile, e);
+        }
+        log.info("Loaded {} geocoding queries ({} places) from {}", loaded, size(), indexFile);
+        if (fileLines > 2 * maxQueries) {
+            compact();
+        }
+    }
+
+    /**
+     * Looks up a previously seen query.
+     *
+     * @param query the raw search query
+     * @param limit maximum number of results
+     * @return the places Nominatim returned for the query, empty if it recently found none, or
+     *         null if the query has not been seen
+     */
+    public List<GeocodingService.LocationInfo> search(String query, int limit) {
+        String key = normalize(query);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<GeocodingService.LocationInfo> exact = queries.get(key);
+            if (exact == null) {
+                Instant until = negatives.get(key);
+                if (until != null && clock.instant().isBefore(until)) {
+                    hits.increment();
+                    return List.of();
+                }
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return exact.size() > limit ? exact.subList(0, limit) : exact;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds known places whose name starts with the query or, failing that, is within a small
+     * edit distance of it. These are guesses, not answers to the query, and are meant for
+     * typeaheads and as a fallback when Nominatim cannot be asked.
+     *
+     * @param query the raw search query
+     * @param limit maximum number of results
+     * @return suggested places, or an empty list if there are none
+     */
+    public List<GeocodingService.LocationInfo> suggest(String query, int limit) {
+        String key = normalize(query);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Set<GeocodingService.LocationInfo> results = new LinkedHashSet<>();
+            for (Set<GeocodingService.LocationInfo> matches
+                    : names.subMap(key, true, key + Character.MAX_VALUE, false).values()) {
+                for (GeocodingService.LocationInfo match : matches) {
+                    results.add(match);
+                    if (results.size() >= limit) {
+                        break;
+                    }
+                }
+                if (results.size() >= limit) {
+                    break;
+                }
+            }
+            if (results.isEmpty() && key.length() >= MIN_FUZZY_LENGTH) {
+                for (String name : fuzzyCandidates(key)) {
+                    results.addAll(names.get(name));
+                    if (results.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+            return new ArrayList<>(results).subList(0, Math.min(limit, results.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records the results of a Nominatim search in memory and appends them to the index file.
+     * The file write happens in the background so callers are never delayed by disk I/O.
+     * A search without results is only remembered in memory, for {@code negative-ttl}.
+     *
+     * @param query the raw search query
+     * @param results the results returned by Nominatim
+     */
+    public void learn(String query, List<GeocodingService.LocationInfo> results) {
+        String key = normalize(query);
+        if (key.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (results.isEmpty()) {
+                negatives.remove(key);
+                negatives.put(key, clock.instant().plus(negativeTtl));
+                if (negatives.size() > maxQueries) {
+                    negatives.pollFirstEntry();
+                }
+                return;
+            }
+            index(key, results);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LearnedQuery learned = new LearnedQuery(key, results.stream().map(IndexedPlace::of).toList());
+        Schedulers.boundedElastic().schedule(() -> append(learned));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return places.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers must hold the write lock (or be single-threaded during load)
+    private void index(String query, List<GeocodingService.LocationInfo> results) {
+        // A query learned again moves to the end, as the newest
+        forget(query);
+        negatives.remove(query);
+        List<GeocodingService.LocationInfo> canonical = new ArrayList<>(results.size());
+        for (GeocodingService.LocationInfo result : results) {
+            String placeKey = placeKey(result);
+            GeocodingService.LocationInfo place = places.computeIfAbsent(placeKey, k -> result);
+            canonical.add(place);
+            if (placeUses.merge(placeKey, 1, Integer::sum) > 1) {
+                continue;
+            }
+
+            String fullName = normalize(place.getDisplayName());
+            String primaryName = primaryName(fullName);
+            names.computeIfAbsent(fullName, k -> new LinkedHashSet<>()).add(place);
+            names.computeIfAbsent(primaryName, k -> new LinkedHashSet<>()).add(place);
+            for (String trigram : trigramsOf(primaryName)) {
+                trigrams.computeIfAbsent(trigram, k -> new HashSet<>()).add(primaryName);
+            }
+        }
+        queries.put(query, List.copyOf(canonical));
+        while (queries.size() > maxQueries) {
+            forget(queries.firstEntry().getKey());
+        }
+    }
+
+    // Drops a query, and the places no other query refers to. Callers must hold the write lock
+    private void forget(String query) {
+        List<GeocodingService.LocationInfo> results = queries.remove(query);
+        if (results == null) {
+            return;
+        }
+        for (GeocodingService.LocationInfo place : results) {
+            String placeKey = placeKey(place);
+            if (placeUses.merge(placeKey, -1, Integer::sum) > 0) {
+                continue;
+            }
+            placeUses.remove(placeKey);
+            places.remove(placeKey);
+            String fullName = normalize(place.getDisplayName());
+            String primaryName = primaryName(fullName);
+            unname(fullName, place);
+            if (unname(primaryName, place)) {
+                for (String trigram : trigramsOf(primaryName)) {
+                    Set<String> withTrigram = trigrams.get(trigram);
+                    if (withTrigram != null && withTrigram.remove(primaryName) && withTrigram.isEmpty()) {
+                        trigrams.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    // Removes a place from a name; true if no place has the name any more
+    private boolean unname(String name, GeocodingService.LocationInfo place) {
+        Set<GeocodingService.LocationInfo> named = names.get(name);
+        if (named == null) {
+            return true;
+        }
+        named.remove(place);
+        if (named.isEmpty()) {
+            names.remove(name);
+            return true;
+        }
+        return false;
+    }
+
+    private static String placeKey(GeocodingService.LocationInfo place) {
+        return place.getDisplayName() + "|" + place.getLatitude() + "|" + place.getLongitude();
+    }
+
+    /**
+     * Finds place names within a small edit distance of the query. Candidates must share
+     * at least a third of the query's trigrams; the query is then compared against the
+     * name's prefix of the same length, so partially typed names also match.
+     */
+    private List<String> fuzzyCandidates(String key) {
+        Set<String> queryTrigrams = trigramsOf(key);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (String name : trigrams.getOrDefault(trigram, Set.of())) {
+                shared.merge(name, 1, Integer::sum);
+            }
+        }
+        int maxDistance = key.length() >= 8 ? 2 : 1;
+        int minShared = Math.max(1, queryTrigrams.size() / 3);
+        Map<String, Integer> matches = new LinkedHashMap<>();
+        shared.forEach((name, count) -> {
+            if (count < minShared) {
+                return;
+            }
+            String prefix = name.length() > key.length() ? name.substring(0, key.length()) : name;
+            int distance = editDistance(key, prefix);
+            if (distance <= maxDistance) {
+                matches.put(name, distance);
+            }
+        });
+        List<String> ordered = new ArrayList<>(matches.keySet());
+        ordered.sort((a, b) -> Integer.compare(matches.get(a), matches.get(b)));
+        return ordered;
+    }
+
+    private void append(LearnedQuery learned) {
+        try {
+            Path parent = indexFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            String line = objectMapper.writeValueAsString(learned) + System.lineSeparator();
+            synchronized (this) {
+                try (BufferedWriter writer = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    writer.write(line);
+                }
+                if (++fileLines > 2 * maxQueries) {
+                    compact();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not append to geocoding index {}", indexFile, e);
+        }
+    }
+
+    /**
+     * Rewrites the index file with the queries currently indexed, dropping evicted and repeated
+     * ones. Appends wait meanwhile, so none of them is lost.
+     */
+    private synchronized void compact() {
+        List<LearnedQuery> snapshot = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            queries.forEach((query, results) ->
+                    snapshot.add(new LearnedQuery(query, results.stream().map(IndexedPlace::of).toList())));
+        } finally {
+            lock.readLock().unlock();
+        }
+        Path temporary = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                for (LearnedQuery learned : snapshot) {
+                    writer.write(objectMapper.writeValueAsString(learned));
+                    writer.write(System.lineSeparator());
+                }
+            }
+            Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            fileLines = snapshot.size();
+            log.info("Compacted geocoding index {} to {} queries", indexFile, snapshot.size());
+        } catch (IOException e) {
+            log.warn("Could not compact geocoding index {}", indexFile, e);
+        }
+    }
+
+    /**
+     * Lowercases, strips diacritics and collapses whitespace, so "Zürich " matches "zurich".
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return decomposed.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String primaryName(String normalizedName) {
+        int comma = normalizedName.indexOf(',');
+        return comma < 0 ? normalizedName : normalizedName.substring(0, comma).trim();
+    }
+
+    private static Set<String> trigramsOf(String text) {
+        String padded = "  " + text + " ";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private static int editDistance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * One line of the index file: a normalized query and the places Nominatim returned for it.
+     */
+    record LearnedQuery(String query, List<IndexedPlace> results) {
+    }
+
+    /**
+     * Serialized form of a place in the index file.
+     */
+    record IndexedPlace(String displayName, double latitude, double longitude, String type) {
+
+        static IndexedPlace of(GeocodingService.LocationInfo info) {
+            return new IndexedPlace(info.getDisplayName(), info.getLatitude(), info.getLongitude(), info.getType());
+        }
+
+        GeocodingService.LocationInfo toLocationInfo() {
+            return new GeocodingService.LocationInfo(displayName, latitude, longitude, type);
+        }
+    }
+}
@@ -6,34 +6,86 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import reactor.core.publisher.Mono;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Service for geocoding operations using OpenStreetMap's Nominatim API.
  * This service is used to search for locations by name to get the coordinates of the location.
+ * Queries seen before are answered from the local {@link GeocodingIndex}; any other query goes
+ * to Nominatim through the rate-limited {@link NominatimScheduler} and {@link UpstreamResilience},
+ * and its results are fed back into the index. Typeahead searches are answered from the index's
+ * prefix and typo-tolerant suggestions when it has any, and so are all searches while Nominatim
+ * is unavailable.
  */
 @Service
 public class GeocodingService {
     private static final String NOMINATIM_API_URL = "https://nominatim.openstreetmap.org/search";
+    private static final int RESULT_LIMIT = 10;
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final NominatimScheduler scheduler;
+    private final GeocodingIndex geocodingIndex;
+    private final UpstreamResilience resilience;
 
-    public GeocodingService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
+    public GeocodingService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper, NominatimScheduler scheduler,
+            GeocodingIndex geocodingIndex, UpstreamResilience resilience) {
         this.webClient = webClientBuilder.build();
         this.objectMapper = objectMapper;
+        this.scheduler = scheduler;
+        this.geocodingIndex = geocodingIndex;
+        this.resilience = resilience;
+    }
+
+    /**
+     * Search for locations by name, using the local index for known queries and Nominatim API otherwise.
+     * Concurrent searches for the same (case- and whitespace-normalized) query share one request.
+     * @param query The location name to search for
+     * @return Mono emitting the list of location information including coordinates
+     */
+    public Mono<List<LocationInfo>> searchLocation(String query) {
+        return searchLocation(query, null);
     }
 
     /**
-     * Search for locations by name using Nominatim API.
+     * Search for locations by name as part of a typeahead.
      * @param query The location name to search for
-     * @return List of location information including coordinates
+     * @param typeaheadClient Id of the client for typeahead searches, whose newer searches supersede
+     *        this one; null for a plain search
+     * @return Mono emitting the list of location information, empty if superseded; index
+     *         suggestions for typeaheads that have some, and if Nominatim fails
      */
-    public List<LocationInfo> searchLocation(String query) {
+    public Mono<List<LocationInfo>> searchLocation(String query, String typeaheadClient) {
+        return Mono.defer(() -> {
+            List<LocationInfo> known = geocodingIndex.search(query, RESULT_LIMIT);
+            if (known != null) {
+                return Mono.just(known);
+            }
+            if (typeaheadClient != null) {
+                List<LocationInfo> suggested = geocodingIndex.suggest(query, RESULT_LIMIT);
+                if (!suggested.isEmpty()) {
+                    return Mono.just(suggested);
+                }
+            }
+            Mono<List<LocationInfo>> fetched = scheduler.submit(normalizeQuery(query), typeaheadClient,
+                    () -> resilience.call("nominatim", false, () -> fetchLocations(query))
+                            .doOnNext(results -> geocodingIndex.learn(query, results)));
+            return resilience.withStale("nominatim", fetched, () -> {
+                        List<LocationInfo> suggested = geocodingIndex.suggest(query, RESULT_LIMIT);
+                        return suggested.isEmpty() ? null : suggested;
+                    })
+                    .defaultIfEmpty(List.of());
+        });
+    }
+
+    private Mono<List<LocationInfo>> fetchLocations(String query) {
         String url = UriComponentsBuilder.fromUriString(NOMINATIM_API_URL)
                 .queryParam("q", query)
                 .queryParam("format", "json")
-                .queryParam("limit", 10)
+                .queryParam("limit", RESULT_LIMIT)
                 .build()
                 .toUriString();
 
@@ -59,8 +111,14 @@ public class GeocodingService {
                     } catch (Exception e) {
                         throw new RuntimeException("Error parsing Nominatim response", e);
                     }
-                })
-                .block();
+                });
+    }
+
+    /**
+     * Normalizes a search query so that trivially different spellings share a request key.
+     */
+    private static String normalizeQuery(String query) {
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -0,0 +1,141 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.travelbuddy.travelbuddy.model.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Geohash encoding of coordinates into hierarchical grid cells.
+ *
+ * A geohash of precision p names a rectangular cell; all points in the cell share the hash,
+ * and neighbouring cells at the same precision tile the earth without overlap. Used to key
+ * cached points of interest by area.
+ */
+final class Geohash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {
+    }
+
+    /**
+     * Encodes a coordinate as a geohash.
+     *
+     * @param latitude the latitude coordinate
+     * @param longitude the longitude coordinate
+     * @param precision number of characters of the hash
+     * @return the geohash of the cell containing the coordinate
+     */
+    static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int index = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    index = index * 2 + 1;
+                    minLon = mid;
+                } else {
+                    index = index * 2;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    index = index * 2 + 1;
+                    minLat = mid;
+                } else {
+                    index = index * 2;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32[index]);
+                bit = 0;
+                index = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Returns the rectangle covered by a geohash cell.
+     *
+     * @param hash the geohash
+     * @return the cell's bounds
+     */
+    static BoundingBox bounds(String hash) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+        for (int i = 0; i < hash.length(); i++) {
+            int index = indexOf(hash.charAt(i));
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = ((index >> bit) & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new BoundingBox(minLat, maxLat, minLon, maxLon);
+    }
+
+    /**
+     * Lists the cells of a given precision that intersect a bounding box.
+     *
+     * @param box the area to cover
+     * @param precision number of characters of each hash
+     * @param maxCells upper bound on the number of cells
+     * @return the covering cells, or null if more than maxCells would be needed
+     */
+    static List<String> covering(BoundingBox box, int precision, int maxCells) {
+        int lonBits = (5 * precision + 1) / 2;
+        int latBits = (5 * precision) / 2;
+        double cellWidth = 360.0 / (1L << lonBits);
+        double cellHeight = 180.0 / (1L << latBits);
+        long lastLatIndex = (1L << latBits) - 1;
+        long lastLonIndex = (1L << lonBits) - 1;
+
+        long firstLat = Math.max(0, (long) Math.floor((box.minLatitude() + 90) / cellHeight));
+        long lastLat = Math.min(lastLatIndex, (long) Math.floor((box.maxLatitude() + 90) / cellHeight));
+        long firstLon = Math.max(0, (long) Math.floor((box.minLongitude() + 180) / cellWidth));
+        long lastLon = Math.min(lastLonIndex, (long) Math.floor((box.maxLongitude() + 180) / cellWidth));
+        if ((lastLat - firstLat + 1) * (lastLon - firstLon + 1) > maxCells) {
+            return null;
+        }
+
+        List<String> cells = new ArrayList<>();
+        for (long latIndex = firstLat; latIndex <= lastLat; latIndex++) {
+            for (long lonIndex = firstLon; lonIndex <= lastLon; lonIndex++) {
+                cells.add(encode(-90 + (latIndex + 0.5) * cellHeight, -180 + (lonIndex + 0.5) * cellWidth, precision));
+            }
+        }
+        return cells;
+    }
+
+    private static int indexOf(char c) {
+        for (int i = 0; i < BASE32.length; i++) {
+            if (BASE32[i] == c) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Invalid geohash character: " + c);
+    }
+}
@@ -1,10 +1,15 @@
 package com.travelbuddy.travelbuddy.service;
 
+import com.travelbuddy.travelbuddy.model.BoundingBox;
 import com.travelbuddy.travelbuddy.model.Location;
 import com.travelbuddy.travelbuddy.repository.LocationRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 /**
  * Service class for managing location-related business logic.
  * 
@@ -17,6 +22,10 @@ import org.springframework.transaction.annotation.Transactional;
  */
 @Service
 public class LocationService {
+    private static final double INITIAL_KNN_RADIUS_KM = 1.0;
+    // Half the earth's circumference: every point lies within this distance
+    private static final double MAX_KNN_RADIUS_KM = Math.PI * BoundingBox.EARTH_RADIUS_KM;
+
     private final LocationRepository locationRepository;
 
     /**
@@ -52,4 +61,44 @@ public class LocationService {
     public void deleteLocation(Location location) {
         locationRepository.delete(location);
     }
+
+    /**
+     * Finds one page of the locations within a radius of a coordinate, nearest first.
+     * 
+     * @param latitude centre latitude
+     * @param longitude centre longitude
+     * @param radiusInKm search radius in kilometres
+     * @param pageable page number and size
+     * @return the requested page of locations
+     */
+    public Page<Location> findWithinRadius(double latitude, double longitude, double radiusInKm, Pageable pageable) {
+        return locationRepository.findLocationsWithinRadius(latitude, longitude, radiusInKm, pageable);
+    }
+
+    /**
+     * Finds the k locations nearest to a coordinate.
+     * 
+     * The search starts with a small radius and doubles it until at least k locations
+     * fall inside it. Each round only scans the bounding box of the current radius, so
+     * dense areas are answered after one or two small index range scans. Once k
+     * locations lie within radius r, no location outside r can be nearer, so the result
+     * is exact.
+     * 
+     * @param latitude centre latitude
+     * @param longitude centre longitude
+     * @param k number of neighbours to return
+     * @return up to k locations, nearest first
+     */
+    public List<Location> findNearest(double latitude, double longitude, int k) {
+        List<Location> nearest = List.of();
+        for (double radius = INITIAL_KNN_RADIUS_KM; ; radius = Math.min(radius * 2, MAX_KNN_RADIUS_KM)) {
+            BoundingBox box = BoundingBox.around(latitude, longitude, radius);
+            nearest = locationRepository.findNearestWithinRadius(latitude, longitude, radius,
+                    box.minLatitude(), box.maxLatitude(), box.minLongitude(), box.maxLongitude(), k);
+            if (nearest.size() >= k || radius >= MAX_KNN_RADIUS_KM) {
+                break;
+            }
+        }
+        return nearest;
+    }
 } 
\ No newline at end of file
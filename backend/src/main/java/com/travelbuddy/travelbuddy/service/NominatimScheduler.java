@@ -0,0 +1,233 @@
+package com.travelbuddy.travelbuddy.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Rate-limited request queue in front of Nominatim, whose usage policy allows about one request per second.
+ *
+ * Requests are released by a global token bucket ({@code requests-per-second}, bursts of up to
+ * {@code burst}), first come first served. Submitting a query that is already queued or in
+ * flight joins it instead of adding another request.
+ *
+ * Typeahead searches carry a client id: a new typeahead search from the same client supersedes
+ * the previous one, which completes empty and, if nobody else waits for it, leaves the queue.
+ * Waiters that cancel (for example because the browser dropped the request) leave the queue the
+ * same way. At most {@code max-queued} distinct queries wait; more are rejected with
+ * {@link UpstreamResilience.UpstreamUnavailableException}.
+ *
+ * Exported metrics: {@code travelbuddy.geocoding.scheduler.wait} (queue time),
+ * the {@code .queued} gauge and the {@code .merged}, {@code .superseded} and {@code .rejected} counters.
+ */
+@Component
+public class NominatimScheduler {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final int maxQueued;
+
+    private final Timer waitTimer;
+    private final Counter merged;
+    private final Counter superseded;
+    private final Counter rejected;
+
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    // Queued and in-flight requests by key
+    private final Map<String, Entry> entries = new HashMap<>();
+    // Latest typeahead waiter per client
+    private final Map<String, Waiter> typeahead = new HashMap<>();
+    private double tokens;
+    private long refilledAt;
+    private boolean drainScheduled;
+
+    public NominatimScheduler(
+            @Value("${travelbuddy.geocoding.nominatim.requests-per-second:1}") double requestsPerSecond,
+            @Value("${travelbuddy.geocoding.nominatim.burst:1}") int burst,
+            @Value("${travelbuddy.geocoding.nominatim.max-queued:100}") int maxQueued,
+            MeterRegistry meterRegistry) {
+        this.permitsPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.maxQueued = maxQueued;
+        this.tokens = burst;
+        this.refilledAt = System.nanoTime();
+        this.waitTimer = meterRegistry.timer("travelbuddy.geocoding.scheduler.wait");
+        this.merged = meterRegistry.counter("travelbuddy.geocoding.scheduler.merged");
+        this.superseded = meterRegistry.counter("travelbuddy.geocoding.scheduler.superseded");
+        this.rejected = meterRegistry.counter("travelbuddy.geocoding.scheduler.rejected");
+        meterRegistry.gauge("travelbuddy.geocoding.scheduler.queued", this, NominatimScheduler::queuedCount);
+    }
+
+    /**
+     * Queues a Nominatim request.
+     *
+     * @param key       normalized query; requests with equal keys are sent once
+     * @param client    id of the client for typeahead supersession, or null for a plain search
+     * @param request   supplier of the upstream request, invoked once when the request is released
+     * @return a Mono emitting the result, completing empty if superseded by a newer typeahead search
+     */
+    public Mono<List<GeocodingService.LocationInfo>> submit(String key, String client,
+            Supplier<Mono<List<GeocodingService.LocationInfo>>> request) {
+        return Mono.create(sink -> {
+            Waiter replaced;
+            Waiter waiter;
+            synchronized (this) {
+                Entry entry = entries.get(key);
+                if (entry == null) {
+                    if (queue.size() - freedBySupersession(client) >= maxQueued) {
+                        rejected.increment();
+                        sink.error(new UpstreamResilience.UpstreamUnavailableException(
+                                "Too many queued Nominatim requests", null));
+                        return;
+                    }
+                    entry = new Entry(key, request);
+                    entries.put(key, entry);
+                    queue.add(entry);
+                } else {
+                    merged.increment();
+                }
+                waiter = new Waiter(sink, client, entry);
+                entry.waiters.add(waiter);
+                replaced = client == null ? null : typeahead.put(client, waiter);
+                if (replaced != null && replaced.entry == entry) {
+                    // Same query again (e.g. a repeated keystroke); keep waiting for it
+                    replaced = null;
+                }
+                if (replaced != null) {
+                    leave(replaced);
+                }
+            }
+            sink.onCancel(() -> {
+                synchronized (this) {
+                    typeahead.remove(waiter.client, waiter);
+                    leave(waiter);
+                }
+            });
+            if (replaced != null) {
+                superseded.increment();
+                replaced.sink.success();
+            }
+            drain();
+        });
+    }
+
+    public synchronized int queuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Returns 1 if a new typeahead search from this client would take the client's previous
+     * search out of the queue, so a full queue does not reject the search that makes room.
+     * Callers must hold the lock.
+     */
+    private int freedBySupersession(String client) {
+        Waiter previous = client == null ? null : typeahead.get(client);
+        if (previous == null || previous.entry.dispatched || previous.entry.waiters.size() > 1) {
+            return 0;
+        }
+        return 1;
+    }
+
+    /**
+     * Removes a waiter from its entry, dropping the entry if it was queued and nobody else waits.
+     * Callers must hold the lock.
+     */
+    private void leave(Waiter waiter) {
+        Entry entry = waiter.entry;
+        entry.waiters.remove(waiter);
+        if (entry.waiters.isEmpty() && !entry.dispatched) {
+            queue.remove(entry);
+            entries.remove(entry.key, entry);
+        }
+    }
+
+    /**
+     * Releases as many queued requests as there are tokens, and schedules another pass for
+     * when the next token is due if requests are left.
+     */
+    private void drain() {
+        List<Entry> released = new ArrayList<>();
+        long delay = 0;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerNano);
+            refilledAt = now;
+            while (!queue.isEmpty() && tokens >= 1) {
+                tokens -= 1;
+                Entry entry = queue.poll();
+                entry.dispatched = true;
+                released.add(entry);
+            }
+            if (!queue.isEmpty() && !drainScheduled) {
+                drainScheduled = true;
+                delay = Math.max(1, (long) Math.ceil((1 - tokens) / permitsPerNano));
+            }
+        }
+        for (Entry entry : released) {
+            dispatch(entry);
+        }
+        if (delay > 0) {
+            Schedulers.parallel().schedule(() -> {
+                synchronized (this) {
+                    drainScheduled = false;
+                }
+                drain();
+            }, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void dispatch(Entry entry) {
+        waitTimer.record(System.nanoTime() - entry.queuedAt, TimeUnit.NANOSECONDS);
+        entry.request.get().subscribe(
+                result -> complete(entry).forEach(waiter -> waiter.sink.success(result)),
+                error -> complete(entry).forEach(waiter -> waiter.sink.error(error)),
+                () -> complete(entry).forEach(waiter -> waiter.sink.success()));
+    }
+
+    /**
+     * Forgets a finished entry and returns the waiters still attached to it. Returns no waiters
+     * on a second call, so onNext followed by onComplete completes each waiter once.
+     */
+    private synchronized List<Waiter> complete(Entry entry) {
+        entries.remove(entry.key, entry);
+        List<Waiter> waiters = List.copyOf(entry.waiters);
+        entry.waiters.clear();
+        for (Waiter waiter : waiters) {
+            if (waiter.client != null) {
+                typeahead.remove(waiter.client, waiter);
+            }
+        }
+        return waiters;
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final long queuedAt = System.nanoTime();
+        private final Supplier<Mono<List<GeocodingService.LocationInfo>>> request;
+        private final List<Waiter> waiters = new ArrayList<>();
+        private boolean dispatched;
+
+        Entry(String key, Supplier<Mono<List<GeocodingService.LocationInfo>>> request) {
+            this.key = key;
+            this.request = request;
+        }
+    }
+
+    private record Waiter(MonoSink<List<GeocodingService.LocationInfo>> sink, String client, Entry entry) {
+    }
+}
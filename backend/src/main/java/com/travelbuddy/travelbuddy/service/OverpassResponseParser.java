@@ -0,0 +1,186 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental parser for Overpass API JSON responses.
+ *
+ * The response body is fed chunk by chunk as it arrives from the network and decoded
+ * token by token with Jackson's non-blocking parser. Each entry of the top-level
+ * {@code elements} array is turned into a {@link OverpassService.PointOfInterest} as
+ * soon as its closing brace has been read, so only the element currently being parsed
+ * is held in memory, never the whole document.
+ *
+ * An instance holds the state of one response and must not be shared between requests.
+ */
+class OverpassResponseParser {
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final PoiCategoryRegistry categoryRegistry;
+
+    // Nesting depth of the token just read (1 = inside the root object)
+    private int depth;
+    // Depth of an element's fields, or -1 while not inside the "elements" array
+    private int elementDepth = -1;
+    private String fieldName;
+
+    // State of the element currently being parsed
+    private boolean inElement;
+    private boolean inTags;
+    private boolean inCenter;
+    private double lat;
+    private double lon;
+    private final Map<String, String> tags = new HashMap<>();
+    private boolean hasTags;
+
+    OverpassResponseParser(JsonFactory jsonFactory, PoiCategoryRegistry categoryRegistry) throws IOException {
+        this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    /**
+     * Feeds the next chunk of the response body and returns the points of interest
+     * completed by it. The buffer is released before returning.
+     *
+     * @param buffer the next chunk of the response body
+     * @return the points of interest whose elements ended in this chunk, possibly empty
+     */
+    List<OverpassService.PointOfInterest> feed(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            feeder.feedInput(bytes, 0, bytes.length);
+            return drain();
+        } catch (IOException e) {
+            throw new RuntimeException("Error parsing Overpass response", e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    /**
+     * Signals the end of the response body and returns any remaining points of interest.
+     */
+    List<OverpassService.PointOfInterest> endOfInput() {
+        try {
+            feeder.endOfInput();
+            List<OverpassService.PointOfInterest> pois = drain();
+            parser.close();
+            return pois;
+        } catch (IOException e) {
+            throw new RuntimeException("Error parsing Overpass response", e);
+        }
+    }
+
+    private List<OverpassService.PointOfInterest> drain() throws IOException {
+        List<OverpassService.PointOfInterest> completed = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            OverpassService.PointOfInterest poi = handle(token);
+            if (poi != null) {
+                completed.add(poi);
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Advances the state machine by one token.
+     *
+     * @return a point of interest if the token closed an element with tags and coordinates, otherwise null
+     */
+    private OverpassService.PointOfInterest handle(JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT -> {
+                depth++;
+                if (elementDepth > 0 && depth == elementDepth) {
+                    startElement();
+                } else if (inElement && depth == elementDepth + 1) {
+                    inTags = "tags".equals(fieldName);
+                    inCenter = "center".equals(fieldName);
+                    hasTags |= inTags;
+                }
+            }
+            case START_ARRAY -> {
+                depth++;
+                if (depth == 2 && "elements".equals(fieldName)) {
+                    elementDepth = 3;
+                }
+            }
+            case END_OBJECT -> {
+                depth--;
+                if (inElement && depth == elementDepth) {
+                    inTags = false;
+                    inCenter = false;
+                } else if (inElement && depth == elementDepth - 1) {
+                    inElement = false;
+                    // Skeleton nodes carry no tags and relations carry no coordinates
+                    boolean located = !Double.isNaN(lat) && !Double.isNaN(lon);
+                    return hasTags && located ? toPointOfInterest() : null;
+                }
+            }
+            case END_ARRAY -> {
+                depth--;
+                if (depth == 1) {
+                    elementDepth = -1;
+                }
+            }
+            case FIELD_NAME -> fieldName = parser.currentName();
+            case VALUE_STRING -> {
+                if (inTags && depth == elementDepth + 1) {
+                    tags.put(fieldName, parser.getText());
+                }
+            }
+            case VALUE_NUMBER_FLOAT, VALUE_NUMBER_INT -> {
+                boolean coordinateLevel = (depth == elementDepth && !inTags) || (inCenter && depth == elementDepth + 1);
+                if (inElement && coordinateLevel) {
+                    if ("lat".equals(fieldName)) {
+                        lat = parser.getDoubleValue();
+                    } else if ("lon".equals(fieldName)) {
+                        lon = parser.getDoubleValue();
+                    }
+                }
+            }
+            default -> {
+                // Other scalars (ids, versions, timestamps) are not needed
+            }
+        }
+        return null;
+    }
+
+    private void startElement() {
+        inElement = true;
+        inTags = false;
+        inCenter = false;
+        hasTags = false;
+        lat = Double.NaN;
+        lon = Double.NaN;
+        tags.clear();
+    }
+
+    private OverpassService.PointOfInterest toPointOfInterest() {
+        String name = tags.getOrDefault("name", "Unnamed");
+        return new OverpassService.PointOfInterest(
+                name,
+                lat,
+                lon,
+                categoryRegistry.resolveType(tags),
+                tags.get("website"),
+                tags.get("phone"),
+                categoryRegistry.categoriesOf(tags));
+    }
+}
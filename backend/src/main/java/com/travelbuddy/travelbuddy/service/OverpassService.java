@@ -1,16 +1,30 @@
 package com.travelbuddy.travelbuddy.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelbuddy.travelbuddy.model.BoundingBox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.BodyInserters;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Service for querying points of interest using Overpass API.
@@ -20,129 +34,256 @@ import java.util.HashMap;
  * types of amenities like restaurants, cafes, hotels, and tourist attractions.
  * 
  * The service maps common amenity types to their corresponding OpenStreetMap tags
- * and constructs appropriate Overpass QL queries to fetch the data.
+ * through the {@link PoiCategoryRegistry}, which also builds the Overpass QL queries.
+ * Searches inside regions imported into the local {@link PoiStore} are answered from it without
+ * any network I/O; elsewhere results are cached per geohash tile and category in the {@link PoiTileCache}.
  */
 @Service
 public class OverpassService {
     private static final String OVERPASS_API_URL = "https://overpass-api.de/api/interpreter";
+    private static final Logger log = LoggerFactory.getLogger(OverpassService.class);
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final RequestCoalescer requestCoalescer;
+    private final PoiCategoryRegistry categoryRegistry;
+    private final PoiTileCache tileCache;
+    private final PoiStore poiStore;
+    private final UpstreamResilience resilience;
+    private final int maxResults;
+    private final int maxTilesPerQuery;
+    private final int maxFetchResults;
 
-    public OverpassService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
+    public OverpassService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper, RequestCoalescer requestCoalescer,
+            PoiCategoryRegistry categoryRegistry, PoiTileCache tileCache, PoiStore poiStore,
+            UpstreamResilience resilience,
+            @Value("${travelbuddy.poi.max-results:500}") int maxResults,
+            @Value("${travelbuddy.poi.cache.max-tiles-per-query:64}") int maxTilesPerQuery,
+            @Value("${travelbuddy.poi.cache.max-fetch-results:10000}") int maxFetchResults) {
         this.webClient = webClientBuilder.build();
         this.objectMapper = objectMapper;
+        this.requestCoalescer = requestCoalescer;
+        this.categoryRegistry = categoryRegistry;
+        this.tileCache = tileCache;
+        this.poiStore = poiStore;
+        this.resilience = resilience;
+        this.maxResults = maxResults;
+        this.maxTilesPerQuery = maxTilesPerQuery;
+        this.maxFetchResults = maxFetchResults;
     }
 
     /**
      * Search for points of interest within a radius of given coordinates.
      * 
      * This method constructs an Overpass QL query to find various types of amenities
-     * within the specified radius. The query is built dynamically based on the requested
-     * amenity types, which are mapped to their corresponding OpenStreetMap tags.
+     * within the specified radius. Requested types sharing an OpenStreetMap key are combined
+     * into one clause, and ways and relations (e.g. parks, museums mapped as buildings) are
+     * returned with their centre point. Unknown types are ignored.
+     *
+     * Circles inside a region of the local POI store are answered from the store. Otherwise the
+     * search circle is covered by geohash tiles. Tiles already cached for a type are
+     * served from memory; all missing tiles are fetched with one bounding-box query and
+     * cached. The combined points are filtered by exact distance and returned nearest first,
+     * up to the configured result limit ({@code travelbuddy.poi.max-results}). Circles too
+     * large to cover with {@code travelbuddy.poi.cache.max-tiles-per-query} tiles bypass the
+     * cache and query Overpass directly. Concurrent identical fetches share one request.
      * 
      * @param latitude       Center point latitude
      * @param longitude      Center point longitude
      * @param radiusInMeters Search radius in meters
      * @param amenityTypes   List of amenity types to search for (e.g., "restaurant", "cafe", "hotel")
-     * @return List of points of interest with their details (name, coordinates, type, website, phone)
-     * @throws RuntimeException if there's an error parsing the Overpass API response
+     * @return Mono emitting the list of points of interest with their details (name, coordinates, type,
+     *         website, phone), or an error if the Overpass API response cannot be parsed
      */
-    public List<PointOfInterest> searchPointsOfInterest(
+    public Mono<List<PointOfInterest>> searchPointsOfInterest(
             double latitude,
             double longitude,
             int radiusInMeters,
             List<String> amenityTypes) {
 
-        StringBuilder query = new StringBuilder();
-        // Map amenity types to their correct Overpass tags
-        Map<String, String[]> typeToTag = new HashMap<>() {
-            {
-                put("restaurant", new String[] { "amenity", "restaurant" });
-                put("cafe", new String[] { "amenity", "cafe" });
-                put("theatre", new String[] { "amenity", "theatre" });
-                put("bar", new String[] { "amenity", "bar" });
-                put("pub", new String[] { "amenity", "pub" });
-                put("parking", new String[] { "amenity", "parking" });
-
-                put("hotel", new String[] { "tourism", "hotel" });
-                put("museum", new String[] { "tourism", "museum" });
-                put("attraction", new String[] { "tourism", "attraction" });
-                put("viewpoint", new String[] { "tourism", "viewpoint" });
-                put("hostel", new String[] { "tourism", "hostel" });
-                put("information", new String[] { "tourism", "information" });
-
-                put("park", new String[] { "leisure", "park" });
-                put("playground", new String[] { "leisure", "playground" });
-
-                put("monument", new String[] { "historic", "monument" });
-                put("castle", new String[] { "historic", "castle" });
-                put("memorial", new String[] { "historic", "memorial" });
-                put("ruins", new String[] { "historic", "ruins" });
+        TreeSet<String> categories = categoryRegistry.knownCategories(amenityTypes);
+        if (categories.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        List<PointOfInterest> local = poiStore.search(latitude, longitude, radiusInMeters, categories, maxResults);
+        if (local != null) {
+            return Mono.just(local);
+        }
+        BoundingBox circle = BoundingBox.around(latitude, longitude, radiusInMeters / 1000.0);
+        List<String> tiles = Geohash.covering(circle, tileCache.getPrecision(), maxTilesPerQuery);
+        if (tiles == null) {
+            return searchAround(latitude, longitude, radiusInMeters, categories);
+        }
+
+        return Mono.defer(() -> {
+            List<List<PointOfInterest>> cached = new ArrayList<>();
+            Set<String> missingTiles = new TreeSet<>();
+            Set<String> missingCategories = new TreeSet<>();
+            for (String tile : tiles) {
+                for (String category : categories) {
+                    List<PointOfInterest> pois = tileCache.get(tile, category);
+                    if (pois == null) {
+                        missingTiles.add(tile);
+                        missingCategories.add(category);
+                    } else {
+                        cached.add(pois);
+                    }
+                }
             }
-        };
-
-        query.append("[out:json][timeout:25];(");
-        for (String amenity : amenityTypes) {
-            String[] tag = typeToTag.get(amenity);
-            if (tag != null) {
-                query.append(String.format(Locale.US,
-                        "node[\"%s\"=\"%s\"](around:%d,%f,%f);",
-                        tag[0], tag[1], radiusInMeters, latitude, longitude));
+            Mono<List<List<PointOfInterest>>> fetched = missingTiles.isEmpty()
+                    ? Mono.just(List.of())
+                    : fetchTiles(missingTiles, missingCategories);
+            return fetched.map(fresh -> nearestWithin(latitude, longitude, radiusInMeters, cached, fresh));
+        });
+    }
+
+    /**
+     * Queries Overpass directly for a circle, without the tile cache.
+     */
+    private Mono<List<PointOfInterest>> searchAround(double latitude, double longitude, int radiusInMeters,
+            TreeSet<String> categories) {
+        String query = categoryRegistry.buildQuery(latitude, longitude, radiusInMeters, categories);
+        // Key on the normalized parameters so "cafe,restaurant" and "restaurant,cafe" coalesce
+        String key = String.format(Locale.US, "%.5f,%.5f,%d,%s",
+                latitude, longitude, radiusInMeters, categories);
+        // Overpass queries are sent as POST and are not retried; see UpstreamResilience
+        return requestCoalescer.coalesce("overpass", key, () -> resilience.call("overpass", false,
+                () -> streamPointsOfInterest(query)
+                        .take(maxResults)
+                        .collectList()));
+    }
+
+    /**
+     * Fetches the given categories for a set of tiles with one bounding-box query, files every
+     * point of interest under its tile and categories, and caches each (tile, category) list.
+     * If the response exceeds {@code travelbuddy.poi.cache.max-fetch-results} it is incomplete
+     * and is used for this request only. If Overpass is unavailable, expired tiles still in the
+     * cache are served instead, provided every requested tile has one.
+     *
+     * @return one list per fetched (tile, category), possibly empty
+     */
+    private Mono<List<List<PointOfInterest>>> fetchTiles(Set<String> tiles, Set<String> categories) {
+        String key = String.join(",", tiles) + "|" + String.join(",", categories);
+        Mono<List<List<PointOfInterest>>> fetched = requestCoalescer.coalesce("overpass", key, () -> {
+            double south = 90, west = 180, north = -90, east = -180;
+            for (String tile : tiles) {
+                BoundingBox bounds = Geohash.bounds(tile);
+                south = Math.min(south, bounds.minLatitude());
+                west = Math.min(west, bounds.minLongitude());
+                north = Math.max(north, bounds.maxLatitude());
+                east = Math.max(east, bounds.maxLongitude());
+            }
+            String query = categoryRegistry.buildQuery(new BoundingBox(south, north, west, east), categories);
+            return resilience.call("overpass", false, () -> streamPointsOfInterest(query)
+                            .take(maxFetchResults + 1L)
+                            .collectList())
+                    .map(pois -> fileByTile(pois, tiles, categories, pois.size() <= maxFetchResults));
+        });
+        return resilience.withStale("overpass", fetched, () -> staleTiles(tiles, categories));
+    }
+
+    private List<List<PointOfInterest>> staleTiles(Set<String> tiles, Set<String> categories) {
+        List<List<PointOfInterest>> stale = new ArrayList<>();
+        for (String tile : tiles) {
+            for (String category : categories) {
+                List<PointOfInterest> pois = tileCache.getStale(tile, category);
+                if (pois == null) {
+                    return null;
+                }
+                stale.add(pois);
             }
         }
-        query.append(");out body;>;out skel qt;");
-
-        System.out.println("Overpass QL query:\n" + query);
-        return webClient.post()
-                .uri(OVERPASS_API_URL)
-                .header("Content-Type", "application/x-www-form-urlencoded")
-                .body(BodyInserters.fromFormData("data", query.toString()))
-                .retrieve()
-                .bodyToMono(String.class)
-                .map(response -> {
-                    try {
-                        JsonNode root = objectMapper.readTree(response);
-                        List<PointOfInterest> pois = new ArrayList<>();
-
-                        root.get("elements").forEach(node -> {
-                            if (node.has("tags")) {
-                                JsonNode tags = node.get("tags");
-                                String name = tags.has("name") ? tags.get("name").asText("Unnamed") : "Unnamed";
-                                String type = tags.has("amenity") ? tags.get("amenity").asText("")
-                                        : tags.has("tourism") ? tags.get("tourism").asText("") : "";
-                                type = capitalize(type);
-                                String website = tags.has("website") ? tags.get("website").asText(null) : null;
-                                String phone = tags.has("phone") ? tags.get("phone").asText(null) : null;
-                                PointOfInterest poi = new PointOfInterest(
-                                        name,
-                                        node.get("lat").asDouble(),
-                                        node.get("lon").asDouble(),
-                                        type,
-                                        website,
-                                        phone);
-                                pois.add(poi);
-                            }
-                        });
-
-                        return pois;
-                    } catch (Exception e) {
-                        throw new RuntimeException("Error parsing Overpass response", e);
+        return stale;
+    }
+
+    private List<List<PointOfInterest>> fileByTile(List<PointOfInterest> pois, Set<String> tiles,
+            Set<String> categories, boolean complete) {
+        Map<String, Map<String, List<PointOfInterest>>> byTile = new HashMap<>();
+        for (String tile : tiles) {
+            Map<String, List<PointOfInterest>> byCategory = new HashMap<>();
+            for (String category : categories) {
+                byCategory.put(category, new ArrayList<>());
+            }
+            byTile.put(tile, byCategory);
+        }
+        for (PointOfInterest poi : pois) {
+            // The bounding box also returns elements of neighbouring tiles; those are dropped here
+            Map<String, List<PointOfInterest>> byCategory =
+                    byTile.get(Geohash.encode(poi.getLatitude(), poi.getLongitude(), tileCache.getPrecision()));
+            if (byCategory == null) {
+                continue;
+            }
+            for (String category : poi.getCategories()) {
+                List<PointOfInterest> list = byCategory.get(category);
+                if (list != null) {
+                    list.add(poi);
+                }
+            }
+        }
+        List<List<PointOfInterest>> filed = new ArrayList<>();
+        byTile.forEach((tile, byCategory) -> byCategory.forEach((category, list) -> {
+            if (complete) {
+                tileCache.put(tile, category, list);
+            }
+            filed.add(list);
+        }));
+        return filed;
+    }
+
+    /**
+     * Combines tile lists into the answer for one circle: points of interest inside the radius,
+     * each once (an element of two requested categories is in two lists), nearest first.
+     */
+    private List<PointOfInterest> nearestWithin(double latitude, double longitude, int radiusInMeters,
+            List<List<PointOfInterest>> cached, List<List<PointOfInterest>> fetched) {
+        Set<PointOfInterest> unique = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<PointOfInterest, Double> distances = new IdentityHashMap<>();
+        for (List<List<PointOfInterest>> lists : List.of(cached, fetched)) {
+            for (List<PointOfInterest> pois : lists) {
+                for (PointOfInterest poi : pois) {
+                    if (!unique.add(poi)) {
+                        continue;
                     }
-                })
-                .block();
+                    double meters = BoundingBox.distanceKm(latitude, longitude, poi.getLatitude(), poi.getLongitude()) * 1000;
+                    if (meters <= radiusInMeters) {
+                        distances.put(poi, meters);
+                    }
+                }
+            }
+        }
+        return distances.keySet().stream()
+                .sorted(Comparator.comparingDouble(distances::get))
+                .limit(maxResults)
+                .toList();
     }
 
     /**
-     * Capitalizes the first letter of a string.
-     * Used for formatting amenity types in a consistent way.
+     * Sends an Overpass QL query and streams the points of interest in the response.
      * 
-     * @param s the string to capitalize
-     * @return the capitalized string, or the original string if null or empty
+     * The body is decoded incrementally by {@link OverpassResponseParser}, so memory use
+     * does not grow with the response size. Cancelling the returned Flux (for example
+     * through {@code take}) stops reading and closes the upstream connection.
+     * 
+     * @param query the Overpass QL query
+     * @return Flux of points of interest in response order
      */
-    private static String capitalize(String s) {
-        if (s == null || s.isEmpty())
-            return s;
-        return s.substring(0, 1).toUpperCase() + s.substring(1);
+    private Flux<PointOfInterest> streamPointsOfInterest(String query) {
+        return Flux.defer(() -> {
+            log.debug("Overpass QL query:\n{}", query);
+            OverpassResponseParser parser;
+            try {
+                parser = new OverpassResponseParser(objectMapper.getFactory(), categoryRegistry);
+            } catch (IOException e) {
+                return Flux.error(new RuntimeException("Error creating Overpass response parser", e));
+            }
+            return webClient.post()
+                    .uri(OVERPASS_API_URL)
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .body(BodyInserters.fromFormData("data", query))
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class)
+                    .concatMapIterable(parser::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(parser.endOfInput())));
+        });
     }
 
     /**
@@ -157,15 +298,23 @@ public class OverpassService {
         private final String type;
         private final String website;
         private final String phone;
+        // Every searchable category the element belongs to; used to file it in the tile cache
+        private final Set<String> categories;
 
         public PointOfInterest(String name, double latitude, double longitude,
                 String type, String website, String phone) {
+            this(name, latitude, longitude, type, website, phone, Set.of());
+        }
+
+        public PointOfInterest(String name, double latitude, double longitude,
+                String type, String website, String phone, Set<String> categories) {
             this.name = name;
             this.latitude = latitude;
             this.longitude = longitude;
             this.type = type;
             this.website = website;
             this.phone = phone;
+            this.categories = Set.copyOf(categories);
         }
 
         public String getName() {
@@ -191,5 +340,10 @@ public class OverpassService {
         public String getPhone() {
             return phone;
         }
+
+        @JsonIgnore
+        public Set<String> getCategories() {
+            return categories;
+        }
     }
 }
\ No newline at end of file
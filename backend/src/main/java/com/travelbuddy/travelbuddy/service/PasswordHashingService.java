@@ -0,0 +1,140 @@
+package com.travelbuddy.travelbuddy.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs BCrypt password hashing on a dedicated, bounded thread pool.
+ *
+ * BCrypt costs tens of milliseconds of CPU per call on purpose. Running it directly on request
+ * threads lets a burst of logins (or a credential-stuffing attack) occupy every core. Here at most
+ * {@code threads} hashes run at once and at most {@code queue-capacity} wait; any further request
+ * is rejected immediately with {@link PasswordHashingRejectedException}, which the controller turns
+ * into a 503. All other traffic keeps the remaining cores.
+ *
+ * Latency (queue wait plus hashing) is recorded in the {@code travelbuddy.password.hashing} timer,
+ * tagged by operation and outcome.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            @Value("${travelbuddy.auth.hashing.threads:0}") int threads,
+            @Value("${travelbuddy.auth.hashing.queue-capacity:64}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+        // 0 means half of the cores, leaving the other half for regular requests
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        meterRegistry.gauge("travelbuddy.password.hashing.queued", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("travelbuddy.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    /**
+     * Hashes a raw password.
+     * @param rawPassword the password to hash
+     * @return the encoded password
+     * @throws PasswordHashingRejectedException if the hashing queue is full
+     */
+    public String encode(String rawPassword) {
+        return run("encode", () -> passwordEncoder.encode(rawPassword), hash -> "success");
+    }
+
+    /**
+     * Checks a raw password against a stored hash.
+     * @param rawPassword the password to check
+     * @param encodedPassword the stored hash
+     * @return true if the password matches
+     * @throws PasswordHashingRejectedException if the hashing queue is full
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run("matches", () -> passwordEncoder.matches(rawPassword, encodedPassword),
+                matched -> matched ? "success" : "mismatch");
+    }
+
+    /**
+     * Tells whether a stored hash was made with weaker settings than the current ones
+     * (e.g. a lower BCrypt strength) and should be re-hashed. Does not hash anything.
+     * @param encodedPassword the stored hash
+     * @return true if the password should be re-encoded
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(String operation, Callable<T> task, Function<T, String> outcomeOf) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            record(operation, "rejected", start);
+            throw new PasswordHashingRejectedException();
+        }
+        try {
+            T result = future.get();
+            record(operation, outcomeOf.apply(result), start);
+            return result;
+        } catch (ExecutionException e) {
+            record(operation, "error", start);
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            record(operation, "error", start);
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+    }
+
+    private void record(String operation, String outcome, long start) {
+        Timer.builder("travelbuddy.password.hashing")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Thrown when the password hashing queue is full. Callers should answer with 503 and ask
+     * the client to retry shortly.
+     */
+    public static class PasswordHashingRejectedException extends RuntimeException {
+        public PasswordHashingRejectedException() {
+            super("Too many concurrent password operations, try again shortly");
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.travelbuddy.travelbuddy.model.BoundingBox;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the point-of-interest categories that can be searched through Overpass.
+ *
+ * Categories are read once at startup from {@code travelbuddy.poi.categories.<osm key>}, each a
+ * comma-separated list of tag values, e.g. {@code travelbuddy.poi.categories.amenity=restaurant,cafe}.
+ * A category is searched by its tag value ("cafe") and matches elements tagged {@code amenity=cafe}.
+ *
+ * For a set of requested categories the registry builds the filter part of the Overpass query: one
+ * clause per OSM key, with all requested values of that key joined into a single anchored regex.
+ * Nodes are printed with {@code out body} (coordinates and tags only, since nodes have no members)
+ * and ways and relations with {@code out tags center}, which replaces their node lists and
+ * members by a single centre point. The query template for a set of categories is built once and
+ * cached; only the search area is filled in per request.
+ */
+@Component
+public class PoiCategoryRegistry {
+
+    static final String PROPERTY_PREFIX = "travelbuddy.poi.categories";
+    // Distinct category sets worth caching; requests beyond this still work, uncached
+    private static final int MAX_CACHED_TEMPLATES = 1024;
+
+    private static final String AREA = "{area}";
+
+    // Category (tag value) -> OSM key
+    private final Map<String, String> keyByCategory;
+    // OSM keys in configuration order; an element tagged with several keys gets the first one's type
+    private final List<String> osmKeys;
+    // Sorted, comma-joined category set -> query template with {area} as the search area
+    private final Map<String, String> templates = new ConcurrentHashMap<>();
+
+    public PoiCategoryRegistry(Environment environment) {
+        Map<String, String> configured = Binder.get(environment)
+                .bind(PROPERTY_PREFIX, Bindable.mapOf(String.class, String.class))
+                .orElseThrow(() -> new IllegalStateException("No POI categories configured under " + PROPERTY_PREFIX));
+        Map<String, String> categories = new LinkedHashMap<>();
+        configured.forEach((osmKey, values) -> {
+            for (String value : values.split(",")) {
+                String category = value.trim().toLowerCase(Locale.ROOT);
+                if (!category.isEmpty()) {
+                    categories.putIfAbsent(category, osmKey);
+                }
+            }
+        });
+        this.keyByCategory = Map.copyOf(categories);
+        this.osmKeys = List.copyOf(configured.keySet());
+    }
+
+    /**
+     * Builds the Overpass QL query for the given categories around a point.
+     *
+     * @param latitude       Center point latitude
+     * @param longitude      Center point longitude
+     * @param radiusInMeters Search radius in meters
+     * @param categories     Requested categories; unknown ones are ignored
+     * @return the query, or null if none of the categories is known
+     */
+    public String buildQuery(double latitude, double longitude, int radiusInMeters, Collection<String> categories) {
+        String around = String.format(Locale.US, "(around:%d,%f,%f)", radiusInMeters, latitude, longitude);
+        return buildQuery(around, categories);
+    }
+
+    /**
+     * Builds the Overpass QL query for the given categories inside a bounding box.
+     *
+     * @param box        the area to search
+     * @param categories Requested categories; unknown ones are ignored
+     * @return the query, or null if none of the categories is known
+     */
+    public String buildQuery(BoundingBox box, Collection<String> categories) {
+        String bbox = String.format(Locale.US, "(%f,%f,%f,%f)",
+                box.minLatitude(), box.minLongitude(), box.maxLatitude(), box.maxLongitude());
+        return buildQuery(bbox, categories);
+    }
+
+    /**
+     * Normalizes requested categories and drops the unknown ones.
+     *
+     * @param categories the requested categories
+     * @return the known categories, lowercased and sorted
+     */
+    public TreeSet<String> knownCategories(Collection<String> categories) {
+        TreeSet<String> known = new TreeSet<>();
+        for (String category : categories) {
+            String normalized = category.trim().toLowerCase(Locale.ROOT);
+            if (keyByCategory.containsKey(normalized)) {
+                known.add(normalized);
+            }
+        }
+        return known;
+    }
+
+    /**
+     * Returns every configured category.
+     *
+     * @return the categories, sorted
+     */
+    public TreeSet<String> allCategories() {
+        return new TreeSet<>(keyByCategory.keySet());
+    }
+
+    /**
+     * Determines the category of an Overpass element from its tags.
+     *
+     * @param tags the element's tags
+     * @return the capitalized category (e.g. "Cafe"), or an empty string if none matches
+     */
+    public String resolveType(Map<String, String> tags) {
+        for (String osmKey : osmKeys) {
+            String value = tags.get(osmKey);
+            if (value != null && osmKey.equals(keyByCategory.get(value))) {
+                return capitalize(value);
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Determines every category an Overpass element belongs to, e.g. both "cafe" and "hotel"
+     * for an element tagged amenity=cafe and tourism=hotel.
+     *
+     * @param tags the element's tags
+     * @return the matching categories, possibly empty
+     */
+    public Set<String> categoriesOf(Map<String, String> tags) {
+        Set<String> categories = new TreeSet<>();
+        for (String osmKey : osmKeys) {
+            String value = tags.get(osmKey);
+            if (value != null && osmKey.equals(keyByCategory.get(value))) {
+                categories.add(value);
+            }
+        }
+        return categories;
+    }
+
+    private String buildQuery(String area, Collection<String> categories) {
+        TreeSet<String> known = knownCategories(categories);
+        if (known.isEmpty()) {
+            return null;
+        }
+        String cacheKey = String.join(",", known);
+        String template = templates.get(cacheKey);
+        if (template == null) {
+            template = compile(known);
+            if (templates.size() < MAX_CACHED_TEMPLATES) {
+                templates.putIfAbsent(cacheKey, template);
+            }
+        }
+        return template.replace(AREA, area);
+    }
+
+    private String compile(TreeSet<String> categories) {
+        Map<String, List<String>> valuesByKey = new LinkedHashMap<>();
+        for (String category : categories) {
+            valuesByKey.computeIfAbsent(keyByCategory.get(category), k -> new ArrayList<>()).add(category);
+        }
+        StringBuilder nodes = new StringBuilder();
+        StringBuilder areas = new StringBuilder();
+        valuesByKey.forEach((osmKey, values) -> {
+            // An exact match is cheaper for Overpass than a one-value regex
+            String filter = values.size() == 1
+                    ? "[\"" + osmKey + "\"=\"" + values.get(0) + "\"]"
+                    : "[\"" + osmKey + "\"~\"^(" + String.join("|", values) + ")$\"]";
+            nodes.append("node").append(filter).append(AREA).append(";");
+            areas.append("wr").append(filter).append(AREA).append(";");
+        });
+        return "[out:json][timeout:25];"
+                + "(" + nodes + ");out body qt;"
+                + "(" + areas + ");out tags center qt;";
+    }
+
+    /**
+     * Capitalizes the first letter of a string.
+     * Used for formatting amenity types in a consistent way.
+     *
+     * @param s the string to capitalize
+     * @return the capitalized string, or the original string if null or empty
+     */
+    private static String capitalize(String s) {
+        if (s == null || s.isEmpty())
+            return s;
+        return s.substring(0, 1).toUpperCase() + s.substring(1);
+    }
+}
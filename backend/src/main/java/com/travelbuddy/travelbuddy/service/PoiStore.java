@@ -0,0 +1,346 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.travelbuddy.travelbuddy.model.BoundingBox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Read-only local store of points of interest, memory-mapped from a file written by
+ * {@link PoiStoreImporter}.
+ *
+ * The file holds the imported regions and categories, a table of non-empty geohash tiles sorted
+ * by hash, fixed-size point-of-interest records grouped by tile, and a string table in which every
+ * distinct name, type, website and phone number is stored once. Opening the store only maps the
+ * file and reads its header; pages are loaded by the OS as searches touch them.
+ *
+ * A search circle that lies inside an imported region and asks only for categories imported for
+ * that region is answered entirely from the file. Since a geohash prefix names a contiguous range
+ * of the sorted tile table, the circle is covered by geohash cells as coarse as needed and each
+ * cell is one binary search. All other searches return null and go to Overpass.
+ *
+ * The mapped buffer is only ever read with absolute gets, which never move its position, so all
+ * threads share it without locking. The file is mapped at startup, so a re-import is picked up
+ * on the next restart.
+ */
+@Component
+public class PoiStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PoiStore.class);
+
+    static final int MAGIC = 0x54425053; // "TBPS"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 7 * Integer.BYTES;
+    // south, north, west, east (double), category mask (long)
+    static final int REGION_SIZE = 4 * Double.BYTES + Long.BYTES;
+    // lat, lon (float), category mask (long), name, type, website, phone (string ids, -1 for none)
+    static final int RECORD_SIZE = 2 * Float.BYTES + Long.BYTES + 4 * Integer.BYTES;
+    static final int NO_STRING = -1;
+    // Upper bound on geohash cells per search; coarser cells are used for larger circles
+    private static final int MAX_CELLS = 64;
+
+    private final Path storeFile;
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile Data data;
+
+    public PoiStore(
+            @Value("${travelbuddy.poi.store.file:data/poi-store.bin}") String storeFile,
+            MeterRegistry meterRegistry) {
+        this.storeFile = Path.of(storeFile);
+        this.hits = meterRegistry.counter("travelbuddy.poi.store.hits");
+        this.misses = meterRegistry.counter("travelbuddy.poi.store.misses");
+        meterRegistry.gauge("travelbuddy.poi.store.pois", this, PoiStore::size);
+    }
+
+    /**
+     * Maps the store file, if it exists.
+     */
+    @PostConstruct
+    void open() {
+        if (!Files.exists(storeFile)) {
+            return;
+        }
+        try {
+            data = Data.map(storeFile);
+            log.info("Opened POI store {} ({} points of interest, {} tiles)", storeFile, data.poiCount, data.tileCount);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not open POI store {}; searches will use Overpass", storeFile, e);
+        }
+    }
+
+    Path getStoreFile() {
+        return storeFile;
+    }
+
+    public int size() {
+        Data current = data;
+        return current == null ? 0 : current.poiCount;
+    }
+
+    /**
+     * Searches the store.
+     *
+     * @param latitude       Center point latitude
+     * @param longitude      Center point longitude
+     * @param radiusInMeters Search radius in meters
+     * @param categories     Requested categories, normalized
+     * @param limit          maximum number of results
+     * @return the points of interest inside the circle, nearest first, or null if no region
+     *         covers both the circle and all of the categories
+     */
+    public List<OverpassService.PointOfInterest> search(double latitude, double longitude, int radiusInMeters,
+            Collection<String> categories, int limit) {
+        Data current = data;
+        if (current == null) {
+            return null;
+        }
+        BoundingBox circle = BoundingBox.around(latitude, longitude, radiusInMeters / 1000.0);
+        long mask = current.mask(categories);
+        if (mask == 0 || !current.covers(circle, mask)) {
+            misses.increment();
+            return null;
+        }
+
+        List<String> cells = null;
+        for (int precision = current.precision; cells == null && precision > 0; precision--) {
+            cells = Geohash.covering(circle, precision, MAX_CELLS);
+        }
+        if (cells == null) {
+            misses.increment();
+            return null;
+        }
+
+        // Every record lies in exactly one tile and every tile in at most one cell, so no duplicates
+        List<double[]> matches = new ArrayList<>();
+        for (String cell : cells) {
+            byte[] prefix = cell.getBytes(StandardCharsets.US_ASCII);
+            for (int tile = current.firstTileWithPrefix(prefix); tile < current.tileCount
+                    && current.tileHasPrefix(tile, prefix); tile++) {
+                int first = current.tileFirstRecord(tile);
+                int end = first + current.tileRecordCount(tile);
+                for (int record = first; record < end; record++) {
+                    if ((current.recordMask(record) & mask) == 0) {
+                        continue;
+                    }
+                    double meters = BoundingBox.distanceKm(latitude, longitude,
+                            current.recordLatitude(record), current.recordLongitude(record)) * 1000;
+                    if (meters <= radiusInMeters) {
+                        matches.add(new double[] {meters, record});
+                    }
+                }
+            }
+        }
+        matches.sort((a, b) -> Double.compare(a[0], b[0]));
+        List<OverpassService.PointOfInterest> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            result.add(current.pointOfInterest((int) matches.get(i)[1]));
+        }
+        hits.increment();
+        return result;
+    }
+
+    /**
+     * An opened store file. Section positions are derived from the header counts; see
+     * {@link PoiStoreWriter} for the layout.
+     */
+    private static final class Data {
+
+        private final ByteBuffer buffer;
+        private final int precision;
+        private final int tileCount;
+        private final int poiCount;
+        private final int tileEntrySize;
+        private final List<BoundingBox> regions;
+        private final long[] regionMasks;
+        private final List<String> categories;
+        private final Map<String, Integer> bitByCategory;
+        private final int tilesAt;
+        private final int recordsAt;
+        private final int stringOffsetsAt;
+        private final int stringsAt;
+
+        private Data(ByteBuffer buffer) {
+            this.buffer = buffer;
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("Not a POI store file of version " + VERSION);
+            }
+            this.precision = buffer.getInt(8);
+            int categoryCount = buffer.getInt(12);
+            int regionCount = buffer.getInt(16);
+            this.tileCount = buffer.getInt(20);
+            this.poiCount = buffer.getInt(24);
+            this.tileEntrySize = precision + 2 * Integer.BYTES;
+
+            int categoriesAt = HEADER_SIZE;
+            int regionsAt = categoriesAt + categoryCount * Integer.BYTES;
+            this.tilesAt = regionsAt + regionCount * REGION_SIZE;
+            this.recordsAt = tilesAt + tileCount * tileEntrySize;
+            this.stringOffsetsAt = recordsAt + poiCount * RECORD_SIZE;
+            int stringCount = buffer.getInt(stringOffsetsAt);
+            this.stringsAt = stringOffsetsAt + (stringCount + 2) * Integer.BYTES;
+
+            List<String> categoryList = new ArrayList<>(categoryCount);
+            Map<String, Integer> bits = new HashMap<>();
+            for (int i = 0; i < categoryCount; i++) {
+                String category = string(buffer.getInt(categoriesAt + i * Integer.BYTES));
+                categoryList.add(category);
+                bits.put(category, i);
+            }
+            this.categories = List.copyOf(categoryList);
+            this.bitByCategory = Map.copyOf(bits);
+
+            List<BoundingBox> regionList = new ArrayList<>(regionCount);
+            this.regionMasks = new long[regionCount];
+            for (int i = 0; i < regionCount; i++) {
+                int at = regionsAt + i * REGION_SIZE;
+                regionList.add(new BoundingBox(buffer.getDouble(at), buffer.getDouble(at + 8),
+                        buffer.getDouble(at + 16), buffer.getDouble(at + 24)));
+                regionMasks[i] = buffer.getLong(at + 32);
+            }
+            this.regions = List.copyOf(regionList);
+        }
+
+        static Data map(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                // The mapping stays valid after the channel is closed
+                return new Data(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        /**
+         * Returns the bit mask of the requested categories, or 0 if one of them was not imported.
+         */
+        long mask(Collection<String> requested) {
+            long mask = 0;
+            for (String category : requested) {
+                Integer bit = bitByCategory.get(category);
+                if (bit == null) {
+                    return 0;
+                }
+                mask |= 1L << bit;
+            }
+            return mask;
+        }
+
+        /**
+         * Checks whether a single region contains the box and was imported with all categories of the mask.
+         */
+        boolean covers(BoundingBox box, long mask) {
+            for (int i = 0; i < regions.size(); i++) {
+                BoundingBox region = regions.get(i);
+                if ((regionMasks[i] & mask) == mask
+                        && region.minLatitude() <= box.minLatitude() && box.maxLatitude() <= region.maxLatitude()
+                        && region.minLongitude() <= box.minLongitude() && box.maxLongitude() <= region.maxLongitude()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Binary search for the first tile whose hash is not smaller than the prefix.
+         */
+        int firstTileWithPrefix(byte[] prefix) {
+            int low = 0;
+            int high = tileCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareTile(mid, prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        boolean tileHasPrefix(int tile, byte[] prefix) {
+            return compareTile(tile, prefix) == 0;
+        }
+
+        // Compares the first prefix.length characters of a tile's hash with the prefix
+        private int compareTile(int tile, byte[] prefix) {
+            int at = tilesAt + tile * tileEntrySize;
+            for (int i = 0; i < prefix.length; i++) {
+                int diff = buffer.get(at + i) - prefix[i];
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return 0;
+        }
+
+        int tileFirstRecord(int tile) {
+            return buffer.getInt(tilesAt + tile * tileEntrySize + precision);
+        }
+
+        int tileRecordCount(int tile) {
+            return buffer.getInt(tilesAt + tile * tileEntrySize + precision + Integer.BYTES);
+        }
+
+        double recordLatitude(int record) {
+            return buffer.getFloat(recordsAt + record * RECORD_SIZE);
+        }
+
+        double recordLongitude(int record) {
+            return buffer.getFloat(recordsAt + record * RECORD_SIZE + 4);
+        }
+
+        long recordMask(int record) {
+            return buffer.getLong(recordsAt + record * RECORD_SIZE + 8);
+        }
+
+        OverpassService.PointOfInterest pointOfInterest(int record) {
+            int at = recordsAt + record * RECORD_SIZE;
+            long mask = buffer.getLong(at + 8);
+            Set<String> recordCategories = new TreeSet<>();
+            for (int bit = 0; bit < categories.size(); bit++) {
+                if ((mask & (1L << bit)) != 0) {
+                    recordCategories.add(categories.get(bit));
+                }
+            }
+            return new OverpassService.PointOfInterest(
+                    string(buffer.getInt(at + 16)),
+                    buffer.getFloat(at),
+                    buffer.getFloat(at + 4),
+                    string(buffer.getInt(at + 20)),
+                    string(buffer.getInt(at + 24)),
+                    string(buffer.getInt(at + 28)),
+                    recordCategories);
+        }
+
+        String string(int id) {
+            if (id == NO_STRING) {
+                return null;
+            }
+            int start = buffer.getInt(stringOffsetsAt + (id + 1) * Integer.BYTES);
+            int end = buffer.getInt(stringOffsetsAt + (id + 2) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            buffer.get(stringsAt + start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelbuddy.travelbuddy.TravelbuddyApplication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Builds the {@link PoiStore} file from local Overpass JSON dumps, as an offline step.
+ *
+ * Regions are configured under {@code travelbuddy.poi.store.import}: for each region name,
+ * {@code .file} is the dump and {@code .categories} the comma-separated categories its query asked
+ * for. A dump is the output of an Overpass query with {@code [out:json]}, printing nodes with
+ * {@code out body} and ways and relations with {@code out tags center}, exactly like the live
+ * searches; elements without coordinates are skipped. Each file becomes one imported region,
+ * bounded by the extent of its points of interest, that answers searches for its own categories
+ * only: a dump of restaurants says nothing about the hotels of the same area.
+ *
+ * The import is not part of the application's startup. It runs through {@link #main} with the
+ * {@value #PROFILE} profile and without a web server, e.g.
+ * {@code mvn spring-boot:run -Dspring-boot.run.main-class=com.travelbuddy.travelbuddy.service.PoiStoreImporter},
+ * and exits when the file is written. The file is written next to the store and moved into place
+ * atomically; running instances pick it up when they are restarted.
+ */
+@Component
+@Profile(PoiStoreImporter.PROFILE)
+public class PoiStoreImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(PoiStoreImporter.class);
+    static final String PROFILE = "poi-import";
+    static final String PROPERTY_PREFIX = "travelbuddy.poi.store.import";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final PoiStore store;
+    private final PoiCategoryRegistry categoryRegistry;
+    private final ObjectMapper objectMapper;
+    // Region name -> dump and its categories, in configuration order
+    private final Map<String, Source> sources;
+    private final int precision;
+
+    public PoiStoreImporter(PoiStore store, PoiCategoryRegistry categoryRegistry, ObjectMapper objectMapper,
+            Environment environment,
+            @Value("${travelbuddy.poi.store.geohash-precision:6}") int precision) {
+        this.store = store;
+        this.categoryRegistry = categoryRegistry;
+        this.objectMapper = objectMapper;
+        this.sources = Binder.get(environment)
+                .bind(PROPERTY_PREFIX, Bindable.mapOf(String.class, Source.class))
+                .orElse(Map.of());
+        this.precision = precision;
+    }
+
+    public static void main(String[] args) throws IOException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TravelbuddyApplication.class)
+                .profiles(PROFILE)
+                .web(WebApplicationType.NONE)
+                .properties("travelbuddy.weather.prewarm.enabled=false")
+                .run(args)) {
+            context.getBean(PoiStoreImporter.class).importRegions();
+        }
+    }
+
+    /**
+     * Reads the configured dumps one after the other and writes the store file.
+     */
+    void importRegions() throws IOException {
+        if (sources.isEmpty()) {
+            throw new IllegalStateException("No regions configured under " + PROPERTY_PREFIX);
+        }
+        Map<String, Set<String>> categoriesByRegion = new LinkedHashMap<>();
+        sources.forEach((region, source) -> categoriesByRegion.put(region, categoriesOf(region, source)));
+        Set<String> allCategories = new TreeSet<>();
+        categoriesByRegion.values().forEach(allCategories::addAll);
+
+        Path target = store.getStoreFile().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (PoiStoreWriter writer = new PoiStoreWriter(temporary, precision, allCategories)) {
+            for (Map.Entry<String, Source> entry : sources.entrySet()) {
+                Path file = Path.of(entry.getValue().file().trim());
+                Set<String> categories = categoriesByRegion.get(entry.getKey());
+                PoiStoreWriter.Region region = writer.region(categories);
+                read(file, region);
+                if (region.size() == 0) {
+                    log.warn("No points of interest in {}; region {} skipped", file, entry.getKey());
+                } else {
+                    log.info("Read {} points of interest from {} for region {} ({})",
+                            region.size(), file, entry.getKey(), String.join(", ", categories));
+                }
+            }
+            writer.write();
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Wrote POI store {}", target);
+    }
+
+    /**
+     * Streams a dump through the same incremental parser that reads live Overpass responses, adding
+     * each point of interest to the region as it is parsed.
+     */
+    private void read(Path source, PoiStoreWriter.Region region) throws IOException {
+        OverpassResponseParser parser = new OverpassResponseParser(objectMapper.getFactory(), categoryRegistry);
+        Flux<OverpassService.PointOfInterest> pois = DataBufferUtils
+                .read(source, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE)
+                .concatMapIterable(parser::feed)
+                .concatWith(Flux.defer(() -> Flux.fromIterable(parser.endOfInput())))
+                .filter(poi -> !poi.getCategories().isEmpty());
+        for (OverpassService.PointOfInterest poi : pois.toIterable()) {
+            region.add(poi);
+        }
+    }
+
+    /**
+     * Validates the categories a region claims to cover; they must be configured categories.
+     */
+    private Set<String> categoriesOf(String region, Source source) {
+        if (source.file() == null || source.categories() == null) {
+            throw new IllegalStateException("POI store region " + region + " needs a file and its categories");
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        for (String category : source.categories()) {
+            if (!category.isBlank()) {
+                requested.add(category.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        TreeSet<String> known = categoryRegistry.knownCategories(requested);
+        if (known.isEmpty() || known.size() != requested.size()) {
+            throw new IllegalStateException("POI store region " + region + " lists unknown categories: " + requested);
+        }
+        return known;
+    }
+
+    /**
+     * Configuration of one imported region: its Overpass dump and the categories the dump was queried for.
+     */
+    record Source(String file, List<String> categories) {
+    }
+}
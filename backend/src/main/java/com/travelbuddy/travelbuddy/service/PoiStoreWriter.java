@@ -0,0 +1,363 @@
+package com.travelbuddy.travelbuddy.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Writes the file read by {@link PoiStore}. All integers are big-endian.
+ *
+ * <pre>
+ * header      magic, version, geohash precision, category count, region count, tile count, record count (int each)
+ * categories  string id per category; a record's category mask has bit i set for category i
+ * regions     south, north, west, east (double each), category mask (long) per imported region
+ * tiles       geohash (precision ASCII bytes), first record, record count (int each); sorted by geohash
+ * records     lat, lon (float), category mask (long), name, type, website, phone (string id each); grouped by tile
+ * strings     string count, then count + 1 byte offsets (int each), then the UTF-8 bytes of all strings
+ * </pre>
+ *
+ * Coordinates are stored as floats (about a metre of precision), and records are filed under the
+ * tile of their float coordinates so that lookups agree with what was written.
+ *
+ * Points of interest are added one at a time and spilled to a temporary file next to the store,
+ * which is then sorted by tile in runs of {@value #RUN_RECORDS} records and merged. Only the string
+ * table and one run are held in memory, so the size of a dump is bounded by the disk, not the heap.
+ */
+final class PoiStoreWriter implements Closeable {
+
+    private static final int MAX_CATEGORIES = Long.SIZE;
+    private static final int RUN_RECORDS = 1 << 20;
+
+    private final Path file;
+    private final int precision;
+    private final List<String> categories;
+    private final Map<String, Integer> bitByCategory = new HashMap<>();
+    private final List<Region> regions = new ArrayList<>();
+    private final StringTable strings = new StringTable();
+    // Filed records in the order they were added: tile, then the record as it is stored
+    private final Path spill;
+    private final DataOutputStream spillOut;
+    private final int entrySize;
+    private final List<Path> temporaryFiles = new ArrayList<>();
+    private int recordCount;
+
+    /**
+     * Starts a store file.
+     *
+     * @param file       the file to write, replaced if it exists
+     * @param precision  geohash precision of the tile index
+     * @param categories all categories of the regions to come
+     */
+    PoiStoreWriter(Path file, int precision, Collection<String> categories) throws IOException {
+        this.file = file;
+        this.precision = precision;
+        this.categories = new ArrayList<>(new TreeSet<>(categories));
+        if (this.categories.size() > MAX_CATEGORIES) {
+            throw new IllegalArgumentException("A POI store holds at most " + MAX_CATEGORIES + " categories");
+        }
+        for (int i = 0; i < this.categories.size(); i++) {
+            bitByCategory.put(this.categories.get(i), i);
+        }
+        this.entrySize = precision + PoiStore.RECORD_SIZE;
+        this.spill = temporaryFile();
+        this.spillOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spill)));
+    }
+
+    /**
+     * Adds an imported region. Searches outside the regions, or for categories a region was not
+     * imported with, are not served from the store.
+     *
+     * @param categories the categories the region's dump was queried for
+     * @return the region, to which its points of interest are then added
+     */
+    Region region(Collection<String> categories) {
+        long mask = 0;
+        for (String category : categories) {
+            Integer bit = bitByCategory.get(category);
+            if (bit == null) {
+                throw new IllegalArgumentException("Category " + category + " was not declared for this store");
+            }
+            mask |= 1L << bit;
+        }
+        Region region = new Region(mask);
+        regions.add(region);
+        return region;
+    }
+
+    /**
+     * Sorts the added records by tile and writes the store file. Regions without points of
+     * interest are left out, since they have no extent.
+     */
+    void write() throws IOException {
+        spillOut.close();
+        List<Region> written = regions.stream().filter(region -> region.size > 0).toList();
+
+        ByteArrayOutputStream tiles = new ByteArrayOutputStream();
+        Path records = temporaryFile();
+        int tileCount = sortByTile(new DataOutputStream(tiles), records);
+        int[] categoryIds = categories.stream().mapToInt(strings::intern).toArray();
+
+        long size = PoiStore.HEADER_SIZE + (long) categories.size() * Integer.BYTES
+                + (long) written.size() * PoiStore.REGION_SIZE + tiles.size() + Files.size(records)
+                + (long) (strings.count() + 2) * Integer.BYTES + strings.bytes.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("POI store would exceed 2 GB; import fewer or smaller regions");
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(PoiStore.MAGIC);
+            out.writeInt(PoiStore.VERSION);
+            out.writeInt(precision);
+            out.writeInt(categories.size());
+            out.writeInt(written.size());
+            out.writeInt(tileCount);
+            out.writeInt(recordCount);
+            for (int id : categoryIds) {
+                out.writeInt(id);
+            }
+            for (Region region : written) {
+                out.writeDouble(region.south);
+                out.writeDouble(region.north);
+                out.writeDouble(region.west);
+                out.writeDouble(region.east);
+                out.writeLong(region.mask);
+            }
+            tiles.writeTo(out);
+            Files.copy(records, out);
+            out.writeInt(strings.count());
+            for (int offset : strings.offsets) {
+                out.writeInt(offset);
+            }
+            out.writeInt(strings.bytes.size());
+            strings.bytes.writeTo(out);
+        }
+    }
+
+    /**
+     * Deletes the temporary files; the store file, if written, is kept.
+     */
+    @Override
+    public void close() throws IOException {
+        spillOut.close();
+        for (Path temporary : temporaryFiles) {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void file(String tile, float latitude, float longitude, long mask, OverpassService.PointOfInterest poi)
+            throws IOException {
+        if (recordCount == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("POI store would exceed " + Integer.MAX_VALUE + " records");
+        }
+        spillOut.write(tile.getBytes(StandardCharsets.US_ASCII));
+        spillOut.writeFloat(latitude);
+        spillOut.writeFloat(longitude);
+        spillOut.writeLong(mask);
+        spillOut.writeInt(strings.intern(poi.getName()));
+        spillOut.writeInt(strings.intern(poi.getType()));
+        spillOut.writeInt(strings.intern(poi.getWebsite()));
+        spillOut.writeInt(strings.intern(poi.getPhone()));
+        recordCount++;
+    }
+
+    /**
+     * Sorts the spilled records by tile into {@code records} and writes the tile table. Records of
+     * the same tile keep the order in which they were added.
+     *
+     * @return the number of tiles
+     */
+    private int sortByTile(DataOutputStream tiles, Path records) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spill)))) {
+            for (int remaining = recordCount; remaining > 0; ) {
+                int count = Math.min(remaining, RUN_RECORDS);
+                byte[] run = new byte[count * entrySize];
+                in.readFully(run);
+                Integer[] order = new Integer[count];
+                Arrays.setAll(order, i -> i);
+                // Stable, so equal tiles stay in insertion order
+                Arrays.sort(order, (a, b) -> Arrays.compare(
+                        run, a * entrySize, a * entrySize + precision, run, b * entrySize, b * entrySize + precision));
+                Path runFile = temporaryFile();
+                try (BufferedOutputStream out = new BufferedOutputStream(Files.newOutputStream(runFile))) {
+                    for (int i : order) {
+                        out.write(run, i * entrySize, entrySize);
+                    }
+                }
+                runs.add(runFile);
+                remaining -= count;
+            }
+        }
+
+        // Merge the runs; ties go to the earlier run, which holds the earlier records
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(Comparator
+                .comparing((RunReader reader) -> reader.entry, (a, b) -> Arrays.compare(a, 0, precision, b, 0, precision))
+                .thenComparingInt(reader -> reader.index));
+        List<RunReader> readers = new ArrayList<>();
+        int tileCount = 0;
+        try (BufferedOutputStream out = new BufferedOutputStream(Files.newOutputStream(records))) {
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader reader = new RunReader(runs.get(i), i, entrySize);
+                readers.add(reader);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+            byte[] tile = null;
+            int first = 0;
+            for (int written = 0; !queue.isEmpty(); written++) {
+                RunReader reader = queue.poll();
+                byte[] entry = reader.entry;
+                if (tile == null || Arrays.compare(tile, 0, precision, entry, 0, precision) != 0) {
+                    if (tile != null) {
+                        writeTile(tiles, tile, first, written - first);
+                        tileCount++;
+                    }
+                    tile = Arrays.copyOf(entry, precision);
+                    first = written;
+                }
+                out.write(entry, precision, PoiStore.RECORD_SIZE);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+            if (tile != null) {
+                writeTile(tiles, tile, first, recordCount - first);
+                tileCount++;
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.in.close();
+            }
+        }
+        return tileCount;
+    }
+
+    private void writeTile(DataOutputStream tiles, byte[] tile, int first, int count) throws IOException {
+        tiles.write(tile, 0, precision);
+        tiles.writeInt(first);
+        tiles.writeInt(count);
+    }
+
+    private Path temporaryFile() throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".part");
+        temporaryFiles.add(temporary);
+        return temporary;
+    }
+
+    /**
+     * One imported region. Tracks the extent of its points of interest while they are added.
+     */
+    final class Region {
+
+        private final long mask;
+        private double south = 90, west = 180, north = -90, east = -180;
+        private int size;
+
+        private Region(long mask) {
+            this.mask = mask;
+        }
+
+        /**
+         * Adds a point of interest of the region's dump. It is stored under the region's categories
+         * only: a dump may contain elements of other categories, but only its own are complete.
+         */
+        void add(OverpassService.PointOfInterest poi) throws IOException {
+            south = Math.min(south, poi.getLatitude());
+            west = Math.min(west, poi.getLongitude());
+            north = Math.max(north, poi.getLatitude());
+            east = Math.max(east, poi.getLongitude());
+            size++;
+
+            long poiMask = 0;
+            for (String category : poi.getCategories()) {
+                Integer bit = bitByCategory.get(category);
+                if (bit != null) {
+                    poiMask |= 1L << bit;
+                }
+            }
+            poiMask &= mask;
+            if (poiMask != 0) {
+                float lat = (float) poi.getLatitude();
+                float lon = (float) poi.getLongitude();
+                file(Geohash.encode(lat, lon, precision), lat, lon, poiMask, poi);
+            }
+        }
+
+        /**
+         * Returns the number of points of interest added to the region.
+         */
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Reads the entries of a sorted run one at a time.
+     */
+    private static final class RunReader {
+
+        private final DataInputStream in;
+        private final int index;
+        private final byte[] entry;
+
+        RunReader(Path run, int index, int entrySize) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+            this.index = index;
+            this.entry = new byte[entrySize];
+        }
+
+        // Only called while the reader is out of the queue, so the entry can be overwritten
+        boolean next() throws IOException {
+            try {
+                in.readFully(entry);
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Interns strings: each distinct value is stored once and referenced by its id.
+     */
+    private static final class StringTable {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<Integer> offsets = new ArrayList<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        int intern(String value) {
+            if (value == null) {
+                return PoiStore.NO_STRING;
+            }
+            return ids.computeIfAbsent(value, v -> {
+                offsets.add(bytes.size());
+                bytes.writeBytes(v.getBytes(StandardCharsets.UTF_8));
+                return offsets.size() - 1;
+            });
+        }
+
+        int count() {
+            return offsets.size();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.travelbuddy.travelbuddy.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process cache of points of interest per (geohash tile, category).
+ *
+ * A tile entry holds every point of interest of one category inside one geohash cell, so any
+ * search circle can be answered by combining the tiles that cover it and filtering by distance.
+ * Overlapping searches (a user panning the map) therefore reuse most tiles.
+ *
+ * Entries expire after a fixed time to live, but are kept (until evicted) so they can still be
+ * served, within {@code max-stale} of their expiry, when Overpass is unavailable.
+ *
+ * The cache is bounded by the total number of cached points of interest rather than by entry
+ * count, since a tile in a city centre can hold hundreds of them and a rural tile none. An empty
+ * tile still counts as one, so searches over sea, rural areas or rare categories cannot add
+ * entries without bound. The least recently used tiles are evicted first. Hits, misses and
+ * evictions are exported as Micrometer counters.
+ */
+@Component
+public class PoiTileCache {
+
+    private final int precision;
+    private final Duration timeToLive;
+    private final Duration maxStale;
+    private final long maxPois;
+    private final Clock clock;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    // Access-ordered so iteration starts at the least recently used tile
+    private final LinkedHashMap<TileKey, CachedTile> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedPois;
+    // Sum of the entry weights the bound applies to; see weight()
+    private long cachedWeight;
+
+    public PoiTileCache(
+            @Value("${travelbuddy.poi.cache.geohash-precision:6}") int precision,
+            @Value("${travelbuddy.poi.cache.ttl:PT12H}") Duration timeToLive,
+            @Value("${travelbuddy.poi.cache.max-pois:200000}") long maxPois,
+            @Value("${travelbuddy.poi.cache.max-stale:P7D}") Duration maxStale,
+            MeterRegistry meterRegistry) {
+        this.precision = precision;
+        this.timeToLive = timeToLive;
+        this.maxStale = maxStale;
+        this.maxPois = maxPois;
+        this.clock = Clock.systemUTC();
+        this.hits = meterRegistry.counter("travelbuddy.poi.cache.hits");
+        this.misses = meterRegistry.counter("travelbuddy.poi.cache.misses");
+        this.evictions = meterRegistry.counter("travelbuddy.poi.cache.evictions");
+        meterRegistry.gauge("travelbuddy.poi.cache.size", this, PoiTileCache::size);
+        meterRegistry.gauge("travelbuddy.poi.cache.pois", this, PoiTileCache::poiCount);
+    }
+
+    /**
+     * Returns the geohash precision of the tiles.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Looks up the points of interest of one category in one tile.
+     *
+     * @param tile the geohash of the tile
+     * @param category the category
+     * @return the cached points of interest, or null if the tile is not cached or has expired
+     */
+    public synchronized List<OverpassService.PointOfInterest> get(String tile, String category) {
+        TileKey key = new TileKey(tile, category);
+        CachedTile cached = entries.get(key);
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        if (!clock.instant().isBefore(cached.expiresAt())) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached.pois();
+    }
+
+    /**
+     * Looks up a tile, accepting one that expired less than {@code max-stale} ago. Used as a
+     * fallback when Overpass fails; does not count as a hit or miss.
+     *
+     * @param tile the geohash of the tile
+     * @param category the category
+     * @return the cached points of interest, or null if the tile is not cached or is too old
+     */
+    public synchronized List<OverpassService.PointOfInterest> getStale(String tile, String category) {
+        CachedTile cached = entries.get(new TileKey(tile, category));
+        if (cached == null || !clock.instant().isBefore(cached.expiresAt().plus(maxStale))) {
+            return null;
+        }
+        return cached.pois();
+    }
+
+    /**
+     * Stores the complete list of points of interest of one category in one tile.
+     *
+     * @param tile the geohash of the tile
+     * @param category the category
+     * @param pois all points of interest of that category in the tile, possibly empty
+     */
+    public synchronized void put(String tile, String category, List<OverpassService.PointOfInterest> pois) {
+        TileKey key = new TileKey(tile, category);
+        remove(key);
+        entries.put(key, new CachedTile(List.copyOf(pois), clock.instant().plus(timeToLive)));
+        cachedPois += pois.size();
+        cachedWeight += weight(pois);
+        Iterator<Map.Entry<TileKey, CachedTile>> eldest = entries.entrySet().iterator();
+        while (cachedWeight > maxPois && eldest.hasNext()) {
+            Map.Entry<TileKey, CachedTile> entry = eldest.next();
+            if (entry.getKey().equals(key)) {
+                continue;
+            }
+            cachedPois -= entry.getValue().pois().size();
+            cachedWeight -= weight(entry.getValue().pois());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long poiCount() {
+        return cachedPois;
+    }
+
+    private void remove(TileKey key) {
+        CachedTile removed = entries.remove(key);
+        if (removed != null) {
+            cachedPois -= removed.pois().size();
+            cachedWeight -= weight(removed.pois());
+        }
+    }
+
+    /**
+     * Cost of an entry against {@code max-pois}: its number of points of interest, but at least one.
+     */
+    private static long weight(List<OverpassService.PointOfInterest> pois) {
+        return Math.max(1, pois.size());
+    }
+
+    private record TileKey(String tile, String category) {
+    }
+
+    private record CachedTile(List<OverpassService.PointOfInterest> pois, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,174 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.travelbuddy.travelbuddy.model.RefreshToken;
+import com.travelbuddy.travelbuddy.model.User;
+import com.travelbuddy.travelbuddy.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Service class for refresh tokens.
+ *
+ * A refresh token is a random 256-bit value handed to the client once at login. Exchanging it for
+ * a new access token costs a hash lookup instead of a BCrypt password check. Tokens are single-use:
+ * every refresh replaces the token with a new one. Presenting a token that was already replaced
+ * means it was copied, so all tokens of that user are revoked and the user has to log in again.
+ * A token revoked at logout or by a password change is simply rejected.
+ * Within a few seconds of its replacement, however, the token was most likely presented by a second
+ * tab refreshing at the same time; that request is answered with {@link RecentlyRotatedException}
+ * so the tab can pick up the token obtained by the first one instead of logging the user out.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    // Two tabs refreshing at the same time present the same token; this is not treated as theft
+    private static final Duration REUSE_GRACE = Duration.ofSeconds(10);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration timeToLive;
+    private final SecureRandom random = new SecureRandom();
+    private final Clock clock;
+
+    @Autowired
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            @Value("${travelbuddy.auth.refresh-token-ttl:P30D}") Duration timeToLive) {
+        this(refreshTokenRepository, timeToLive, Clock.systemUTC());
+    }
+
+    RefreshTokenService(RefreshTokenRepository refreshTokenRepository, Duration timeToLive, Clock clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Issues a new refresh token for a user.
+     * @param user the authenticated user
+     * @return the raw token to hand to the client; only its hash is stored
+     */
+    @Transactional
+    public String issue(User user) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant now = clock.instant();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .user(user)
+                .createdAt(now)
+                .expiresAt(now.plus(timeToLive))
+                .build());
+        return token;
+    }
+
+    /**
+     * Exchanges a refresh token for a new one.
+     * @param token the raw token presented by the client
+     * @return the user and the replacement token, or empty if the token is unknown, expired, revoked or already used
+     * @throws RecentlyRotatedException if the token was replaced by a concurrent refresh moments ago
+     */
+    @Transactional
+    public Optional<Rotation> rotate(String token) {
+        Optional<RefreshToken> stored = refreshTokenRepository.findByTokenHash(hash(token));
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        RefreshToken refreshToken = stored.get();
+        Instant now = clock.instant();
+        if (refreshToken.getReplacedAt() != null) {
+            if (!now.isAfter(refreshToken.getReplacedAt().plus(REUSE_GRACE))) {
+                throw new RecentlyRotatedException();
+            }
+            log.warn("Refresh token reuse detected for user {}; revoking all of their tokens",
+                    refreshToken.getUser().getUsername());
+            refreshTokenRepository.revokeAllByUser(refreshToken.getUser(), now);
+            return Optional.empty();
+        }
+        if (refreshToken.getRevokedAt() != null || !now.isBefore(refreshToken.getExpiresAt())) {
+            return Optional.empty();
+        }
+        refreshToken.setRevokedAt(now);
+        refreshToken.setReplacedAt(now);
+        User user = refreshToken.getUser();
+        return Optional.of(new Rotation(user, issue(user)));
+    }
+
+    /**
+     * Revokes a single refresh token (logout). Unknown tokens are ignored.
+     * @param token the raw token presented by the client
+     */
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .filter(refreshToken -> refreshToken.getRevokedAt() == null)
+                .ifPresent(refreshToken -> refreshToken.setRevokedAt(clock.instant()));
+    }
+
+    /**
+     * Revokes every refresh token of a user, e.g. after a password change.
+     * @param user the user
+     */
+    @Transactional
+    public void revokeAll(User user) {
+        refreshTokenRepository.revokeAllByUser(user, clock.instant());
+    }
+
+    /**
+     * Deletes expired tokens once an hour.
+     */
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT5M")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(clock.instant());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Result of a successful refresh: the token's user and the token that replaces it.
+     */
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    /**
+     * Thrown when a refresh token is presented again within the grace period after it was replaced.
+     * The session is still valid: the concurrent refresh already obtained the new tokens.
+     */
+    public static class RecentlyRotatedException extends RuntimeException {
+        public RecentlyRotatedException() {
+            super("Refresh token was just rotated by a concurrent request");
+        }
+    }
+}
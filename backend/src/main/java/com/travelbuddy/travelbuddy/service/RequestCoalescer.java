@@ -0,0 +1,79 @@
+package com.travelbuddy.travelbuddy.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight layer for upstream lookups.
+ *
+ * Concurrent callers that ask for the same normalized key attach to one in-flight
+ * {@link Mono} instead of each starting their own upstream request. The shared Mono is
+ * forgotten as soon as it terminates, so results are not cached beyond the flight itself;
+ * longer-lived caching is left to the individual services.
+ *
+ * The number of coalesced calls is exported per upstream as the
+ * {@code travelbuddy.upstream.coalesced} counter.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final ConcurrentMap<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns a Mono that shares the in-flight request for the given key, starting a new
+     * one from the supplier if none is running.
+     *
+     * @param upstream name of the upstream service, used to namespace keys and tag metrics
+     * @param key normalized request key; callers with equal keys share one request
+     * @param request supplier of the upstream request, invoked only by the first caller
+     * @return a Mono emitting the shared result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(String upstream, String key, Supplier<Mono<T>> request) {
+        String flightKey = upstream + ":" + key;
+        return Mono.defer(() -> {
+            Mono<?> existing = inFlight.get(flightKey);
+            if (existing != null) {
+                coalescedCounter(upstream).increment();
+                return (Mono<T>) existing;
+            }
+
+            Mono<T>[] holder = new Mono[1];
+            holder[0] = request.get()
+                    .doFinally(signal -> inFlight.remove(flightKey, holder[0]))
+                    .cache();
+
+            Mono<?> winner = inFlight.putIfAbsent(flightKey, holder[0]);
+            if (winner != null) {
+                // Another caller registered the same key between our get and putIfAbsent
+                coalescedCounter(upstream).increment();
+                return (Mono<T>) winner;
+            }
+            return holder[0];
+        });
+    }
+
+    /**
+     * Returns the number of requests currently in flight.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private Counter coalescedCounter(String upstream) {
+        return meterRegistry.counter("travelbuddy.upstream.coalesced", "upstream", upstream);
+    }
+}
@@ -0,0 +1,129 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.travelbuddy.travelbuddy.dto.TripDetailDto;
+import com.travelbuddy.travelbuddy.dto.WeatherForecastColumnsDto;
+import com.travelbuddy.travelbuddy.mapper.LocationMapper;
+import com.travelbuddy.travelbuddy.mapper.TripMapper;
+import com.travelbuddy.travelbuddy.model.Trip;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Builds the trip detail view in one call.
+ *
+ * The trip, its participants and its locations are loaded once. The weather forecast and the
+ * points of interest at the destination are then requested concurrently, each with its own
+ * deadline. A part that fails or misses its deadline is returned with a TIMEOUT or UNAVAILABLE
+ * status instead of failing the whole view. Upstream requests are shared through the services'
+ * request coalescing, so a request cut off by a deadline still completes and fills the cache
+ * for the next view.
+ *
+ * Part outcomes are counted in {@code travelbuddy.trip.detail.parts}, tagged by part and status.
+ */
+@Service
+public class TripDetailService {
+
+    private static final Logger log = LoggerFactory.getLogger(TripDetailService.class);
+
+    private final TripService tripService;
+    private final WeatherService weatherService;
+    private final OverpassService overpassService;
+    private final TripMapper tripMapper;
+    private final LocationMapper locationMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration weatherTimeout;
+    private final Duration poiTimeout;
+
+    public TripDetailService(TripService tripService, WeatherService weatherService, OverpassService overpassService,
+            TripMapper tripMapper, LocationMapper locationMapper, MeterRegistry meterRegistry,
+            @Value("${travelbuddy.trip-detail.weather-timeout:PT3S}") Duration weatherTimeout,
+            @Value("${travelbuddy.trip-detail.poi-timeout:PT5S}") Duration poiTimeout) {
+        this.tripService = tripService;
+        this.weatherService = weatherService;
+        this.overpassService = overpassService;
+        this.tripMapper = tripMapper;
+        this.locationMapper = locationMapper;
+        this.meterRegistry = meterRegistry;
+        this.weatherTimeout = weatherTimeout;
+        this.poiTimeout = poiTimeout;
+    }
+
+    /**
+     * Loads the detail view of a trip.
+     *
+     * @param id the trip ID
+     * @param radius search radius for points of interest, in meters
+     * @param poiTypes point of interest types to search for; none skips the search
+     * @return Mono emitting the detail view, or empty if the trip does not exist
+     */
+    public Mono<TripDetailDto> getDetail(Long id, int radius, List<String> poiTypes) {
+        Optional<Trip> tripOpt = tripService.findDetailById(id);
+        if (tripOpt.isEmpty()) {
+            return Mono.empty();
+        }
+        Trip trip = tripOpt.get();
+        TripDetailDto detail = new TripDetailDto(
+                tripMapper.toDto(trip),
+                trip.getLocations().stream().map(locationMapper::toDto).toList(),
+                null,
+                null);
+
+        boolean hasCoordinates = trip.getLatitude() != null && trip.getLongitude() != null;
+        Mono<TripDetailDto.Part<WeatherForecastColumnsDto>> weather = !hasCoordinates
+                ? Mono.just(skipped("weather", "Trip has no coordinates"))
+                : part("weather", weatherTimeout, weatherService.getForecastColumns(trip.getLatitude(), trip.getLongitude())
+                        .map(forecast -> WeatherService.clipToDates(forecast, trip.getStartDate(), trip.getEndDate())));
+        Mono<TripDetailDto.Part<List<OverpassService.PointOfInterest>>> pointsOfInterest = !hasCoordinates
+                ? Mono.just(skipped("poi", "Trip has no coordinates"))
+                : poiTypes.isEmpty()
+                        ? Mono.just(skipped("poi", "No point of interest types requested"))
+                        : part("poi", poiTimeout, overpassService.searchPointsOfInterest(
+                                trip.getLatitude(), trip.getLongitude(), radius, poiTypes));
+
+        return Mono.zip(weather, pointsOfInterest).map(parts -> {
+            detail.setWeather(parts.getT1());
+            detail.setPointsOfInterest(parts.getT2());
+            return detail;
+        });
+    }
+
+    /**
+     * Runs one part under its deadline, turning a timeout or failure into a status.
+     */
+    private <T> Mono<TripDetailDto.Part<T>> part(String name, Duration timeout, Mono<T> request) {
+        return request
+                .timeout(timeout)
+                .map(TripDetailDto.Part::ok)
+                .switchIfEmpty(Mono.fromSupplier(() -> TripDetailDto.Part.of(TripDetailDto.Status.UNAVAILABLE, "No data")))
+                .onErrorResume(TimeoutException.class, e -> Mono.just(
+                        TripDetailDto.Part.of(TripDetailDto.Status.TIMEOUT, "No response within " + timeout.toMillis() + " ms")))
+                .onErrorResume(e -> {
+                    log.warn("Trip detail {} unavailable: {}", name, e.getMessage());
+                    return Mono.just(TripDetailDto.Part.of(TripDetailDto.Status.UNAVAILABLE, "Upstream service unavailable"));
+                })
+                .doOnNext(result -> count(name, result.getStatus()));
+    }
+
+    private <T> TripDetailDto.Part<T> skipped(String name, String message) {
+        count(name, TripDetailDto.Status.SKIPPED);
+        return TripDetailDto.Part.of(TripDetailDto.Status.SKIPPED, message);
+    }
+
+    private void count(String name, TripDetailDto.Status status) {
+        meterRegistry.counter("travelbuddy.trip.detail.parts",
+                "part", name, "status", status.name().toLowerCase(Locale.ROOT)).increment();
+    }
+}
@@ -5,12 +5,15 @@ import com.travelbuddy.travelbuddy.model.TripStatus;
 import com.travelbuddy.travelbuddy.model.User;
 import com.travelbuddy.travelbuddy.repository.TripRepository;
 import com.travelbuddy.travelbuddy.repository.UserRepository;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Service class for trip-related business logic.
@@ -71,6 +74,29 @@ public class TripService {
         return tripRepository.findById(id);
     }
 
+    /**
+     * Finds a trip with its organizer, participants and locations loaded, for the trip detail view.
+     * The locations are batch-loaded with a second select rather than joined (see TripRepository).
+     * @param id the trip ID
+     * @return an Optional containing the found trip, or empty if not found
+     */
+    @Transactional(readOnly = true)
+    public Optional<Trip> findDetailById(Long id) {
+        Optional<Trip> trip = tripRepository.findById(id);
+        trip.ifPresent(found -> Hibernate.initialize(found.getLocations()));
+        return trip;
+    }
+
+    /**
+     * Finds a trip by its ID with its locations loaded.
+     * @param id the trip ID
+     * @return an Optional containing the trip and its locations, or empty if not found
+     */
+    @Transactional(readOnly = true)
+    public Optional<Trip> findByIdWithLocations(Long id) {
+        return tripRepository.findWithLocationsById(id);
+    }
+
     /**
      * Finds all trips organized by a specific user.
      * @param organizerId the ID of the organizer
@@ -112,6 +138,17 @@ public class TripService {
         return tripRepository.findTripsBetweenDates(startDate, endDate);
     }
 
+    /**
+     * Finds trips that are happening between two dates, with their locations loaded.
+     * @param startDate the start date
+     * @param endDate the end date
+     * @return list of trips happening between the dates
+     */
+    @Transactional(readOnly = true)
+    public List<Trip> findTripsWithLocationsBetweenDates(LocalDate startDate, LocalDate endDate) {
+        return tripRepository.findWithLocationsBetweenDates(startDate, endDate);
+    }
+
     /**
      * Finds trips by destination.
      * @param destination the destination to search for
@@ -167,6 +204,23 @@ public class TripService {
         return tripRepository.findAll();
     }
 
+    /**
+     * Finds the next page of trips after a keyset cursor and maps them while the
+     * transaction is still open, so lazy participants and locations can be loaded even
+     * when the caller runs outside a request-bound persistence context (e.g. when streaming).
+     * @param afterId the id of the last trip already returned, or null for the first page
+     * @param limit maximum number of trips to return
+     * @param mapper converts each trip, typically to a DTO
+     * @return up to limit mapped trips, ordered by id
+     */
+    @Transactional(readOnly = true)
+    public <T> List<T> findAfter(Long afterId, int limit, Function<Trip, T> mapper) {
+        return tripRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, Limit.of(limit))
+                .stream()
+                .map(mapper)
+                .toList();
+    }
+
     @Transactional
     public void deleteTrip(Trip trip) {
         tripRepository.delete(trip);
@@ -0,0 +1,269 @@
+package com.travelbuddy.travelbuddy.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Shared resilience policy for calls to external APIs (Open-Meteo, Nominatim, Overpass).
+ *
+ * Every upstream gets, configured under {@code travelbuddy.upstream.<name>.*} with defaults
+ * under {@code travelbuddy.upstream.default.*}:
+ * <ul>
+ *   <li>a per-attempt {@code timeout} and an overall {@code deadline} including retries,</li>
+ *   <li>a {@link Bulkhead} admitting {@code max-concurrent} requests at a time and queueing up to
+ *       {@code max-queued} more; queue time counts against the deadline,</li>
+ *   <li>a circuit breaker that opens after {@code failure-threshold} consecutive failed attempts,
+ *       rejects calls for {@code open-duration}, then lets a single probe through (half-open):
+ *       success closes it, failure opens it again,</li>
+ *   <li>for idempotent requests only, up to {@code retries} retries of transient failures
+ *       (timeouts, connection errors, 5xx, 429) with exponential backoff from {@code backoff}
+ *       and 50% jitter.</li>
+ * </ul>
+ * Transient failures that remain are surfaced as {@link UpstreamUnavailableException} (503)
+ * rather than a generic 500. Callers holding an older cached result can fall back to it with
+ * {@link #withStale}. Breaker state, attempt outcomes, retries and stale responses are exported
+ * as {@code travelbuddy.upstream.*} metrics tagged by upstream.
+ */
+@Component
+public class UpstreamResilience {
+
+    private static final String PREFIX = "travelbuddy.upstream.";
+
+    private final Binder binder;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock = Clock.systemUTC();
+    private final ConcurrentMap<String, Upstream> upstreams = new ConcurrentHashMap<>();
+
+    public UpstreamResilience(Environment environment, MeterRegistry meterRegistry) {
+        this.binder = Binder.get(environment);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs an upstream request under the upstream's policy.
+     *
+     * @param upstream   name of the upstream service, used for configuration and metrics
+     * @param idempotent whether the request may be retried
+     * @param request    supplier of the request; invoked once per attempt
+     * @return a Mono emitting the result, or {@link UpstreamUnavailableException} if the upstream
+     *         is unavailable (circuit open, bulkhead full, deadline exceeded or transient failures exhausted)
+     */
+    public <T> Mono<T> call(String upstream, boolean idempotent, Supplier<Mono<T>> request) {
+        Upstream policy = upstreams.computeIfAbsent(upstream, this::createUpstream);
+        Mono<T> attempt = Mono.defer(() -> {
+            if (!policy.breaker.tryAcquire()) {
+                policy.rejected.increment();
+                return Mono.error(new UpstreamUnavailableException(upstream + " circuit is open", null));
+            }
+            return policy.bulkhead.run(() -> request.get().timeout(policy.timeout))
+                    .doOnSuccess(result -> {
+                        policy.breaker.onSuccess();
+                        policy.succeeded.increment();
+                    })
+                    .doOnError(e -> {
+                        if (e instanceof UpstreamUnavailableException) {
+                            // Rejected by the bulkhead before reaching the upstream
+                            policy.breaker.release();
+                        } else if (isTransient(e)) {
+                            policy.breaker.onFailure();
+                            policy.failed.increment();
+                        } else {
+                            // The upstream answered (e.g. 404); it is healthy even if the call failed
+                            policy.breaker.onSuccess();
+                            policy.succeeded.increment();
+                        }
+                    })
+                    .doOnCancel(policy.breaker::release);
+        });
+        if (idempotent && policy.retries > 0) {
+            attempt = attempt.retryWhen(Retry.backoff(policy.retries, policy.backoff)
+                    .jitter(0.5)
+                    .filter(UpstreamResilience::isTransient)
+                    .doBeforeRetry(signal -> policy.retried.increment())
+                    .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        }
+        return attempt
+                .timeout(policy.deadline)
+                .onErrorMap(UpstreamResilience::isTransient,
+                        e -> new UpstreamUnavailableException(upstream + " is unavailable", e));
+    }
+
+    /**
+     * Falls back to an older cached result when an upstream call fails.
+     *
+     * @param upstream name of the upstream service, for metrics
+     * @param call     the guarded upstream call
+     * @param stale    supplier of a stale result, returning null if there is none
+     * @return the call's result, or the stale result if the call failed and one exists
+     */
+    public <T> Mono<T> withStale(String upstream, Mono<T> call, Supplier<T> stale) {
+        return call.onErrorResume(e -> {
+            T fallback = stale.get();
+            if (fallback == null) {
+                return Mono.error(e);
+            }
+            meterRegistry.counter(PREFIX + "stale", "upstream", upstream).increment();
+            return Mono.just(fallback);
+        });
+    }
+
+    /**
+     * Whether a failure says something about the upstream's health and is worth retrying.
+     */
+    static boolean isTransient(Throwable e) {
+        if (e instanceof UpstreamUnavailableException) {
+            return false;
+        }
+        if (e instanceof TimeoutException || e instanceof WebClientRequestException) {
+            return true;
+        }
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError()
+                    || response.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+        }
+        return false;
+    }
+
+    private Upstream createUpstream(String name) {
+        Upstream upstream = new Upstream(
+                duration(name, "timeout", Duration.ofSeconds(10)),
+                duration(name, "deadline", Duration.ofSeconds(20)),
+                setting(name, "retries", Integer.class, 2),
+                duration(name, "backoff", Duration.ofMillis(200)),
+                new CircuitBreaker(
+                        setting(name, "failure-threshold", Integer.class, 5),
+                        duration(name, "open-duration", Duration.ofSeconds(30)),
+                        clock),
+                new Bulkhead(name,
+                        setting(name, "max-concurrent", Integer.class, 16),
+                        setting(name, "max-queued", Integer.class, 64),
+                        meterRegistry),
+                meterRegistry.counter(PREFIX + "calls", "upstream", name, "outcome", "success"),
+                meterRegistry.counter(PREFIX + "calls", "upstream", name, "outcome", "failure"),
+                meterRegistry.counter(PREFIX + "calls", "upstream", name, "outcome", "rejected"),
+                meterRegistry.counter(PREFIX + "retries", "upstream", name));
+        meterRegistry.gauge(PREFIX + "circuit.state", Tags.of("upstream", name),
+                upstream.breaker, breaker -> breaker.state().ordinal());
+        return upstream;
+    }
+
+    private Duration duration(String upstream, String setting, Duration fallback) {
+        return setting(upstream, setting, Duration.class, fallback);
+    }
+
+    private <T> T setting(String upstream, String setting, Class<T> type, T fallback) {
+        T defaultValue = binder.bind(PREFIX + "default." + setting, type).orElse(fallback);
+        return binder.bind(PREFIX + upstream + "." + setting, type).orElse(defaultValue);
+    }
+
+    private record Upstream(Duration timeout, Duration deadline, int retries, Duration backoff,
+            CircuitBreaker breaker, Bulkhead bulkhead, Counter succeeded, Counter failed, Counter rejected, Counter retried) {
+    }
+
+    /**
+     * Consecutive-failure circuit breaker with a single half-open probe.
+     */
+    static final class CircuitBreaker {
+
+        // Ordinals are exported as the circuit.state gauge: 0 closed, 1 half-open, 2 open
+        enum State { CLOSED, HALF_OPEN, OPEN }
+
+        private final int failureThreshold;
+        private final Duration openDuration;
+        private final Clock clock;
+
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private Instant openedAt;
+        private boolean probing;
+
+        CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+            this.failureThreshold = failureThreshold;
+            this.openDuration = openDuration;
+            this.clock = clock;
+        }
+
+        synchronized State state() {
+            return state;
+        }
+
+        /**
+         * Asks for permission to make an attempt. When the open period is over, the first
+         * caller becomes the half-open probe and everyone else is rejected until it finishes.
+         */
+        synchronized boolean tryAcquire() {
+            switch (state) {
+                case CLOSED -> {
+                    return true;
+                }
+                case OPEN -> {
+                    if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    probing = true;
+                    return true;
+                }
+                default -> {
+                    if (probing) {
+                        return false;
+                    }
+                    probing = true;
+                    return true;
+                }
+            }
+        }
+
+        synchronized void onSuccess() {
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            probing = false;
+        }
+
+        synchronized void onFailure() {
+            probing = false;
+            if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = clock.instant();
+                consecutiveFailures = 0;
+            }
+        }
+
+        /**
+         * Releases the probe slot of an attempt that was cancelled before it finished.
+         */
+        synchronized void release() {
+            probing = false;
+        }
+    }
+
+    /**
+     * Thrown when an upstream cannot be reached in time; answered with 503 Service Unavailable.
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class UpstreamUnavailableException extends RuntimeException {
+        public UpstreamUnavailableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.travelbuddy.travelbuddy.model.User;
 import com.travelbuddy.travelbuddy.model.Buddy;
 import com.travelbuddy.travelbuddy.repository.UserRepository;
 import com.travelbuddy.travelbuddy.repository.BuddyRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,26 +23,31 @@ public class UserService {
     public final UserRepository userRepository;
     private final BuddyRepository buddyRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     /**
      * Constructor-based dependency injection for UserRepository, BuddyRepository, and PasswordEncoder.
      * @param userRepository the repository for user data access
      * @param buddyRepository the repository for buddy data access
      * @param passwordEncoder the password encoder for encoding passwords
+     * @param passwordHashingService the bounded executor for request-time password hashing
      */
-    public UserService(UserRepository userRepository, BuddyRepository buddyRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, BuddyRepository buddyRepository, PasswordEncoder passwordEncoder,
+                       PasswordHashingService passwordHashingService) {
         this.userRepository = userRepository;
         this.buddyRepository = buddyRepository;
         this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
     }
 
     /**
      * Registers a new user in the system.
      * @param user the user to register
      * @return the saved user entity
+     * @throws PasswordHashingService.PasswordHashingRejectedException if password hashing is overloaded
      */
     public User registerUser(User user) {
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHashingService.encode(user.getPassword()));
         // Ensure role is set and always uppercase
         if (user.getRole() == null || user.getRole().isEmpty()) {
             user.setRole("USER"); // Default role
@@ -51,6 +57,31 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    /**
+     * Checks a user's password. If the stored hash was made with a lower BCrypt strength than
+     * the configured one, it is replaced by a new hash of the same password.
+     * @param username the username
+     * @param rawPassword the password entered by the user
+     * @return the user if the credentials are valid, otherwise empty
+     * @throws PasswordHashingService.PasswordHashingRejectedException if password hashing is overloaded
+     */
+    public Optional<User> authenticate(String username, String rawPassword) {
+        Optional<User> userOpt = userRepository.findByUsername(username);
+        if (userOpt.isEmpty() || !passwordHashingService.matches(rawPassword, userOpt.get().getPassword())) {
+            return Optional.empty();
+        }
+        User user = userOpt.get();
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            try {
+                user.setPassword(passwordHashingService.encode(rawPassword));
+                userRepository.save(user);
+            } catch (PasswordHashingService.PasswordHashingRejectedException e) {
+                // The login itself succeeded; the upgrade is retried on the next login
+            }
+        }
+        return userOpt;
+    }
+
     /**
      * Initializes the admin user if it doesn't exist.
      */
@@ -188,6 +219,16 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * Finds the next page of users after a keyset cursor, ordered by id.
+     * @param afterId the id of the last user already returned, or null for the first page
+     * @param limit maximum number of users to return
+     * @return up to limit users
+     */
+    public List<User> findAfter(Long afterId, int limit) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, Limit.of(limit));
+    }
+
     public User saveUser(User user) {
         return userRepository.save(user);
     }
@@ -0,0 +1,254 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.travelbuddy.travelbuddy.dto.WeatherForecastColumnsDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process cache for weather forecasts, keyed by a snapped coordinate grid.
+ *
+ * Coordinates are snapped to square tiles (0.05° by default, roughly 5 km), so all
+ * requests for the same city share a single entry. Entries expire shortly after the
+ * next full hour, which is when Open-Meteo publishes its hourly model update.
+ * Expired entries are kept (until evicted) so they can still be served, within
+ * {@code max-stale} of their expiry, when Open-Meteo is unavailable.
+ * A tile can hold forecasts for a few {@link ForecastSelection}s; a lookup is served from any
+ * entry whose selection covers the requested one, so narrow requests reuse a full forecast.
+ * The cache is bounded by tile count and evicts the least recently used tile first.
+ * Hits, misses and evictions are exported as Micrometer counters.
+ */
+@Component
+public class WeatherForecastCache {
+
+    // Distinct selections (sections, variables, range) cached per tile
+    private static final int MAX_SELECTIONS_PER_TILE = 4;
+
+    private final double tileSize;
+    private final int maxEntries;
+    private final Duration refreshOffset;
+    private final Duration maxStale;
+    private final Clock clock;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    // Access-ordered so the eldest entry is always the least recently used tile
+    private final LinkedHashMap<TileKey, List<CachedForecast>> entries;
+
+    public WeatherForecastCache(
+            @Value("${travelbuddy.weather.cache.tile-size:0.05}") double tileSize,
+            @Value("${travelbuddy.weather.cache.max-entries:5000}") int maxEntries,
+            @Value("${travelbuddy.weather.cache.refresh-offset-minutes:5}") long refreshOffsetMinutes,
+            @Value("${travelbuddy.weather.cache.max-stale:PT6H}") Duration maxStale,
+            MeterRegistry meterRegistry) {
+        this.tileSize = tileSize;
+        this.maxEntries = maxEntries;
+        this.refreshOffset = Duration.ofMinutes(refreshOffsetMinutes);
+        this.maxStale = maxStale;
+        this.clock = Clock.systemUTC();
+        this.hits = meterRegistry.counter("travelbuddy.weather.cache.hits");
+        this.misses = meterRegistry.counter("travelbuddy.weather.cache.misses");
+        this.evictions = meterRegistry.counter("travelbuddy.weather.cache.evictions");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TileKey, List<CachedForecast>> eldest) {
+                if (size() > WeatherForecastCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        meterRegistry.gauge("travelbuddy.weather.cache.size", this, WeatherForecastCache::size);
+    }
+
+    /**
+     * Snaps a coordinate to the tile that contains it.
+     *
+     * @param latitude the latitude coordinate
+     * @param longitude the longitude coordinate
+     * @return the key of the containing tile
+     */
+    public TileKey tileFor(double latitude, double longitude) {
+        return new TileKey(
+            (int) Math.floor(latitude / tileSize),
+            (int) Math.floor(longitude / tileSize));
+    }
+
+    /**
+     * Returns the latitude of the centre of a tile. Upstream requests are made for the
+     * tile centre so that one cached forecast is valid for the whole tile.
+     */
+    public double centerLatitude(TileKey key) {
+        return (key.latIndex() + 0.5) * tileSize;
+    }
+
+    /**
+     * Returns the longitude of the centre of a tile.
+     */
+    public double centerLongitude(TileKey key) {
+        return (key.lonIndex() + 0.5) * tileSize;
+    }
+
+    /**
+     * Looks up the full forecast for a tile.
+     *
+     * @param key the tile key
+     * @return the cached forecast, or null if there is none or it has expired
+     */
+    public WeatherForecastColumnsDto get(TileKey key) {
+        return get(key, ForecastSelection.FULL);
+    }
+
+    /**
+     * Looks up a forecast for a tile that contains a selection. A forecast cached for a wider
+     * selection is cut down to the requested one.
+     *
+     * @param key the tile key
+     * @param selection the requested part of the forecast
+     * @return the cached forecast, or null if there is none covering the selection or it has expired
+     */
+    public WeatherForecastColumnsDto get(TileKey key, ForecastSelection selection) {
+        Instant now = clock.instant();
+        CachedForecast cached = find(key, selection, now);
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return selection.project(cached.forecast(), cached.selection(), now);
+    }
+
+    /**
+     * Checks whether a tile holds a full forecast that stays valid for at least {@code margin}.
+     * Unlike {@link #get(TileKey)} this does not count as a hit or miss.
+     *
+     * @param key the tile key
+     * @param margin how long the forecast must remain valid
+     * @return true if the tile does not need a refresh yet
+     */
+    public boolean isFresh(TileKey key, Duration margin) {
+        return find(key, ForecastSelection.FULL, clock.instant().plus(margin)) != null;
+    }
+
+    /**
+     * Looks up the full forecast for a tile, accepting one that expired less than {@code max-stale} ago.
+     */
+    public WeatherForecastColumnsDto getStale(TileKey key) {
+        return getStale(key, ForecastSelection.FULL);
+    }
+
+    /**
+     * Looks up a forecast for a tile, accepting one that expired less than {@code max-stale} ago.
+     * Used as a fallback when the upstream fails; does not count as a hit or miss.
+     *
+     * @param key the tile key
+     * @param selection the requested part of the forecast
+     * @return the cached forecast, or null if there is none or it is too old
+     */
+    public WeatherForecastColumnsDto getStale(TileKey key, ForecastSelection selection) {
+        Instant now = clock.instant();
+        CachedForecast cached = find(key, selection, now.minus(maxStale));
+        return cached == null ? null : selection.project(cached.forecast(), cached.selection(), now);
+    }
+
+    /**
+     * Stores the full forecast for a tile until the next hourly model update.
+     *
+     * @param key the tile key
+     * @param forecast the forecast to cache
+     */
+    public void put(TileKey key, WeatherForecastColumnsDto forecast) {
+        put(key, ForecastSelection.FULL, forecast);
+    }
+
+    /**
+     * Stores a forecast fetched for a selection until the next hourly model update. Entries of
+     * the tile that the new one covers are replaced; at most {@code MAX_SELECTIONS_PER_TILE}
+     * selections are kept per tile, dropping the oldest.
+     *
+     * @param key the tile key
+     * @param selection the selection the forecast was fetched for
+     * @param forecast the forecast to cache
+     */
+    public synchronized void put(TileKey key, ForecastSelection selection, WeatherForecastColumnsDto forecast) {
+        CachedForecast added = new CachedForecast(selection, forecast, nextRefresh(clock.instant()));
+        List<CachedForecast> kept = new ArrayList<>();
+        for (CachedForecast cached : entries.getOrDefault(key, List.of())) {
+            if (!selection.covers(cached.selection())) {
+                kept.add(cached);
+            }
+        }
+        kept.add(added);
+        if (kept.size() > MAX_SELECTIONS_PER_TILE) {
+            kept = kept.subList(kept.size() - MAX_SELECTIONS_PER_TILE, kept.size());
+        }
+        entries.put(key, List.copyOf(kept));
+    }
+
+    /**
+     * Finds an entry of a tile that covers a selection and is still valid at the given instant,
+     * preferring the most recently stored one.
+     */
+    private synchronized CachedForecast find(TileKey key, ForecastSelection selection, Instant validAt) {
+        List<CachedForecast> cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        for (int i = cached.size() - 1; i >= 0; i--) {
+            CachedForecast entry = cached.get(i);
+            if (validAt.isBefore(entry.expiresAt()) && entry.selection().covers(selection)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public double hitCount() {
+        return hits.count();
+    }
+
+    public double missCount() {
+        return misses.count();
+    }
+
+    public double evictionCount() {
+        return evictions.count();
+    }
+
+    /**
+     * Computes when an entry stored now becomes stale: the next full hour plus a small
+     * offset that gives Open-Meteo time to publish the new model run.
+     */
+    private Instant nextRefresh(Instant now) {
+        Instant refresh = now.truncatedTo(ChronoUnit.HOURS).plus(refreshOffset);
+        return refresh.isAfter(now) ? refresh : refresh.plus(Duration.ofHours(1));
+    }
+
+    /**
+     * Index of a grid tile. Two coordinates share a tile if both indices are equal.
+     */
+    public record TileKey(int latIndex, int lonIndex) {
+    }
+
+    private record CachedForecast(ForecastSelection selection, WeatherForecastColumnsDto forecast, Instant expiresAt) {
+    }
+}
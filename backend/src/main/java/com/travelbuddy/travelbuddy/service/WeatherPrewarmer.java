@@ -0,0 +1,147 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.travelbuddy.travelbuddy.model.Location;
+import com.travelbuddy.travelbuddy.model.Trip;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Refreshes the weather forecast cache for trips that are under way or start within the
+ * forecast horizon, so their trip pages are served from a warm cache.
+ *
+ * Runs shortly after each hourly cache expiry ({@code travelbuddy.weather.prewarm.cron}). The
+ * destinations and locations of those trips are snapped to cache tiles and deduplicated; tiles
+ * that are still fresh (for example because someone viewed the trip since the expiry) are skipped.
+ * The rest are fetched in multi-location Open-Meteo requests of {@code travelbuddy.weather.batch-size}
+ * tiles, started at most one per {@code batch-interval} and at most {@code concurrency} at a time,
+ * so the pre-warmer leaves most of the Open-Meteo bulkhead to interactive requests.
+ *
+ * Exported metrics: {@code travelbuddy.weather.prewarm.duration}; the {@code .trips}, {@code .tiles}
+ * and {@code .coverage} gauges (share of the last run's tiles that ended up fresh); and the cost
+ * counters {@code .requests} (Open-Meteo requests) and {@code .locations} (locations requested, which
+ * is what Open-Meteo counts against its limits), plus {@code .failures} (tiles that could not be fetched).
+ */
+@Component
+@ConditionalOnProperty(name = "travelbuddy.weather.prewarm.enabled", havingValue = "true", matchIfMissing = true)
+public class WeatherPrewarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(WeatherPrewarmer.class);
+
+    private final TripService tripService;
+    private final WeatherService weatherService;
+    private final WeatherForecastCache forecastCache;
+    private final int horizonDays;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration batchInterval;
+    private final Duration minRemaining;
+    private final Clock clock = Clock.systemUTC();
+
+    private final Timer duration;
+    private final Counter requests;
+    private final Counter locations;
+    private final Counter failures;
+    private final AtomicInteger lastTrips = new AtomicInteger();
+    private final AtomicInteger lastTiles = new AtomicInteger();
+    private volatile double lastCoverage = 1.0;
+
+    public WeatherPrewarmer(TripService tripService, WeatherService weatherService, WeatherForecastCache forecastCache,
+            @Value("${travelbuddy.weather.prewarm.horizon-days:7}") int horizonDays,
+            @Value("${travelbuddy.weather.batch-size:50}") int batchSize,
+            @Value("${travelbuddy.weather.prewarm.concurrency:2}") int concurrency,
+            @Value("${travelbuddy.weather.prewarm.batch-interval:PT1S}") Duration batchInterval,
+            @Value("${travelbuddy.weather.prewarm.min-remaining:PT10M}") Duration minRemaining,
+            MeterRegistry meterRegistry) {
+        this.tripService = tripService;
+        this.weatherService = weatherService;
+        this.forecastCache = forecastCache;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.batchInterval = batchInterval;
+        this.minRemaining = minRemaining;
+        this.duration = meterRegistry.timer("travelbuddy.weather.prewarm.duration");
+        this.requests = meterRegistry.counter("travelbuddy.weather.prewarm.requests");
+        this.locations = meterRegistry.counter("travelbuddy.weather.prewarm.locations");
+        this.failures = meterRegistry.counter("travelbuddy.weather.prewarm.failures");
+        meterRegistry.gauge("travelbuddy.weather.prewarm.trips", lastTrips);
+        meterRegistry.gauge("travelbuddy.weather.prewarm.tiles", lastTiles);
+        meterRegistry.gauge("travelbuddy.weather.prewarm.coverage", this, prewarmer -> prewarmer.lastCoverage);
+    }
+
+    /**
+     * Refreshes the forecasts of upcoming trips. Blocks the scheduling thread until done, so runs never overlap.
+     */
+    @Scheduled(cron = "${travelbuddy.weather.prewarm.cron:0 7 * * * *}")
+    public void prewarm() {
+        duration.record(this::run);
+    }
+
+    private void run() {
+        LocalDate today = LocalDate.now(clock);
+        List<Trip> trips = tripService.findTripsWithLocationsBetweenDates(today, today.plusDays(horizonDays));
+
+        Set<WeatherForecastCache.TileKey> tiles = new LinkedHashSet<>();
+        for (Trip trip : trips) {
+            if (trip.getLatitude() != null && trip.getLongitude() != null) {
+                tiles.add(forecastCache.tileFor(trip.getLatitude(), trip.getLongitude()));
+            }
+            for (Location location : trip.getLocations()) {
+                if (location.getLatitude() != null && location.getLongitude() != null) {
+                    tiles.add(forecastCache.tileFor(location.getLatitude(), location.getLongitude()));
+                }
+            }
+        }
+
+        List<WeatherForecastCache.TileKey> stale = tiles.stream()
+                .filter(tile -> !forecastCache.isFresh(tile, minRemaining))
+                .toList();
+        List<List<WeatherForecastCache.TileKey>> batches = new ArrayList<>();
+        for (int i = 0; i < stale.size(); i += batchSize) {
+            batches.add(stale.subList(i, Math.min(i + batchSize, stale.size())));
+        }
+
+        Integer refreshed = Flux.fromIterable(batches)
+                .delayElements(batchInterval)
+                .flatMap(batch -> {
+                    requests.increment();
+                    locations.increment(batch.size());
+                    return weatherService.refreshTiles(batch)
+                            .onErrorResume(e -> {
+                                failures.increment(batch.size());
+                                log.warn("Could not pre-warm {} weather tiles: {}", batch.size(), e.getMessage());
+                                return Mono.just(0);
+                            });
+                }, concurrency)
+                .reduce(0, Integer::sum)
+                .block();
+
+        long fresh = tiles.stream().filter(tile -> forecastCache.isFresh(tile, Duration.ZERO)).count();
+        lastTrips.set(trips.size());
+        lastTiles.set(tiles.size());
+        lastCoverage = tiles.isEmpty() ? 1.0 : (double) fresh / tiles.size();
+        log.info("Pre-warmed weather for {} trips: {} tiles, {} refreshed in {} requests, coverage {}%",
+                trips.size(), tiles.size(), refreshed, batches.size(), Math.round(lastCoverage * 100));
+    }
+}
@@ -0,0 +1,203 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.travelbuddy.travelbuddy.dto.WeatherForecastColumnsDto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming parser for Open-Meteo forecast responses requested with {@code timeformat=unixtime}.
+ *
+ * The response is read token by token and each hourly or daily variable is copied straight
+ * into a primitive array, without building a JSON tree or one object per hour. Unknown
+ * fields (units, generation time, ...) are skipped. Null values in the upstream arrays,
+ * which Open-Meteo uses for hours beyond a model's range, are read as 0.
+ */
+final class WeatherResponseParser {
+
+    private WeatherResponseParser() {
+    }
+
+    /**
+     * Parses a single-location forecast response.
+     *
+     * @param jsonFactory factory used to create the streaming parser
+     * @param body the raw response body
+     * @return the forecast in columnar form
+     */
+    static WeatherForecastColumnsDto parse(JsonFactory jsonFactory, byte[] body) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            return readForecast(parser);
+        } catch (IOException e) {
+            throw new RuntimeException("Error parsing open-meteo API response", e);
+        }
+    }
+
+    /**
+     * Parses a multi-location forecast response. Open-Meteo answers a request with several
+     * comma-separated coordinates with an array of forecasts in request order, and a request
+     * with a single coordinate with a plain object; both are accepted.
+     *
+     * @param jsonFactory factory used to create the streaming parser
+     * @param body the raw response body
+     * @return the forecasts in request order
+     */
+    static List<WeatherForecastColumnsDto> parseAll(JsonFactory jsonFactory, byte[] body) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_OBJECT) {
+                return List.of(readForecast(parser));
+            }
+            expect(first, JsonToken.START_ARRAY);
+            List<WeatherForecastColumnsDto> forecasts = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                expect(token, JsonToken.START_OBJECT);
+                forecasts.add(readForecast(parser));
+            }
+            return forecasts;
+        } catch (IOException e) {
+            throw new RuntimeException("Error parsing open-meteo API response", e);
+        }
+    }
+
+    /**
+     * Reads one forecast object. The parser must be positioned on its START_OBJECT token
+     * and is left on the matching END_OBJECT.
+     */
+    static WeatherForecastColumnsDto readForecast(JsonParser parser) throws IOException {
+        WeatherForecastColumnsDto forecast = new WeatherForecastColumnsDto();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "latitude" -> forecast.setLatitude(parser.getDoubleValue());
+                case "longitude" -> forecast.setLongitude(parser.getDoubleValue());
+                case "utc_offset_seconds" -> forecast.setTimezoneOffset(parser.getLongValue());
+                case "elevation" -> forecast.setElevation(parser.getDoubleValue());
+                case "timezone" -> forecast.setTimezone(parser.getText());
+                case "current" -> forecast.setCurrent(readCurrent(parser));
+                case "hourly" -> forecast.setHourly(readHourly(parser));
+                case "daily" -> forecast.setDaily(readDaily(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return forecast;
+    }
+
+    private static WeatherForecastColumnsDto.Current readCurrent(JsonParser parser) throws IOException {
+        WeatherForecastColumnsDto.Current current = new WeatherForecastColumnsDto.Current();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "time" -> current.setTime(parser.getLongValue());
+                case "weather_code" -> current.setWeatherCode(parser.getIntValue());
+                case "temperature_2m" -> current.setTemperature(parser.getDoubleValue());
+                case "apparent_temperature" -> current.setApparentTemperature(parser.getDoubleValue());
+                case "relative_humidity_2m" -> current.setHumidity(parser.getIntValue());
+                case "precipitation" -> current.setPrecipitation(parser.getDoubleValue());
+                default -> parser.skipChildren();
+            }
+        }
+        return current;
+    }
+
+    private static WeatherForecastColumnsDto.Hourly readHourly(JsonParser parser) throws IOException {
+        WeatherForecastColumnsDto.Hourly hourly = new WeatherForecastColumnsDto.Hourly();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "time" -> hourly.setTime(readLongs(parser));
+                case "temperature_2m" -> hourly.setTemperature(readDoubles(parser));
+                case "apparent_temperature" -> hourly.setApparentTemperature(readDoubles(parser));
+                case "relative_humidity_2m" -> hourly.setHumidity(readInts(parser));
+                case "cloud_cover" -> hourly.setCloudCover(readInts(parser));
+                case "weather_code" -> hourly.setWeatherCode(readInts(parser));
+                case "wind_speed_10m" -> hourly.setWindSpeed(readDoubles(parser));
+                case "precipitation_probability" -> hourly.setPrecipitationProbability(readInts(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return hourly;
+    }
+
+    private static WeatherForecastColumnsDto.Daily readDaily(JsonParser parser) throws IOException {
+        WeatherForecastColumnsDto.Daily daily = new WeatherForecastColumnsDto.Daily();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "time" -> daily.setTime(readLongs(parser));
+                case "weather_code" -> daily.setWeatherCode(readInts(parser));
+                case "temperature_2m_min" -> daily.setTempMin(readDoubles(parser));
+                case "temperature_2m_max" -> daily.setTempMax(readDoubles(parser));
+                case "sunrise" -> daily.setSunrise(readLongs(parser));
+                case "sunset" -> daily.setSunset(readLongs(parser));
+                case "rain_sum" -> daily.setRainSum(readDoubles(parser));
+                case "snowfall_sum" -> daily.setSnowfallSum(readDoubles(parser));
+                case "precipitation_probability_mean" -> daily.setPrecipitationProbability(readInts(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return daily;
+    }
+
+    private static double[] readDoubles(JsonParser parser) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+        double[] values = new double[192];
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = token == JsonToken.VALUE_NULL ? 0 : parser.getDoubleValue();
+        }
+        return count == values.length ? values : Arrays.copyOf(values, count);
+    }
+
+    private static int[] readInts(JsonParser parser) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+        int[] values = new int[192];
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = token == JsonToken.VALUE_NULL ? 0 : parser.getIntValue();
+        }
+        return count == values.length ? values : Arrays.copyOf(values, count);
+    }
+
+    private static long[] readLongs(JsonParser parser) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+        long[] values = new long[192];
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = token == JsonToken.VALUE_NULL ? 0 : parser.getLongValue();
+        }
+        return count == values.length ? values : Arrays.copyOf(values, count);
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual);
+        }
+    }
+}
@@ -1,18 +1,34 @@
 package com.travelbuddy.travelbuddy.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.travelbuddy.travelbuddy.dto.WeatherCurrentDto;
 import com.travelbuddy.travelbuddy.dto.WeatherDailyDto;
+import com.travelbuddy.travelbuddy.dto.WeatherForecastColumnsDto;
 import com.travelbuddy.travelbuddy.dto.WeatherHourlyDto;
 import com.travelbuddy.travelbuddy.dto.WeatherLocationDto;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -22,23 +38,42 @@ import java.time.format.DateTimeFormatter;
  * hourly forecasts, and daily forecasts for any location using its coordinates.
  * It handles the communication with the Open-Meteo API and processes the response
  * into structured DTOs for easy consumption by the application.
+ * 
+ * Internally forecasts are parsed, cached and optionally returned in the columnar
+ * {@link WeatherForecastColumnsDto} form; the per-hour {@link WeatherLocationDto} is
+ * built from it only when that format is requested.
  */
 @Service
 public class WeatherService {
-    private static final String API_URL = "https://api.open-meteo.com/v1/forecast?timezone=auto";
-    private static final String DAILY_URL = "&daily=weather_code,temperature_2m_max,temperature_2m_min,sunrise,sunset,rain_sum,snowfall_sum,precipitation_probability_mean";
-    private static final String HOURLY_URL = "&hourly=temperature_2m,relative_humidity_2m,cloud_cover,weather_code,apparent_temperature,wind_speed_10m,precipitation_probability";
-    private static final String CURRENT_URL = "&current=temperature_2m,relative_humidity_2m,apparent_temperature,precipitation,weather_code";
-    private static final String URL_BASE = API_URL + DAILY_URL + HOURLY_URL + CURRENT_URL;
+    private static final String API_URL = "https://api.open-meteo.com/v1/forecast?timezone=auto&timeformat=unixtime";
+    private static final String URL_BASE = API_URL + ForecastSelection.FULL.upstreamQuery();
 
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final WeatherForecastCache forecastCache;
+    private final RequestCoalescer requestCoalescer;
+    private final UpstreamResilience resilience;
+    private final int batchSize;
 
-    DateTimeFormatter formatedTime = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
+    // Local date-time format Open-Meteo uses for times when timeformat is not unixtime
+    private static final DateTimeFormatter LOCAL_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+    private static final DateTimeFormatter LOCAL_DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
 
-    public WeatherService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
-        this.webClient = webClientBuilder.build();
+    public WeatherService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper, WeatherForecastCache forecastCache,
+            RequestCoalescer requestCoalescer, UpstreamResilience resilience,
+            @Value("${travelbuddy.weather.batch-size:50}") int batchSize,
+            @Value("${travelbuddy.weather.max-response-size-per-location:32KB}") DataSize maxResponseSizePerLocation) {
+        // Responses are buffered whole before parsing; a batch of batch-size locations must fit,
+        // which the 256 KB WebFlux default does not for more than about 30 full forecasts
+        int maxInMemorySize = (int) Math.min(Integer.MAX_VALUE, batchSize * maxResponseSizePerLocation.toBytes());
+        this.webClient = webClientBuilder
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxInMemorySize))
+                .build();
         this.objectMapper = objectMapper;
+        this.forecastCache = forecastCache;
+        this.requestCoalescer = requestCoalescer;
+        this.resilience = resilience;
+        this.batchSize = batchSize;
     }
 
     /**
@@ -48,110 +83,400 @@ public class WeatherService {
      * and daily forecasts for the next 7 days. The data includes temperature, humidity,
      * precipitation, wind speed, and other meteorological parameters.
      * 
+     * Forecasts are cached per coordinate tile (see {@link WeatherForecastCache}), so
+     * requests for nearby coordinates within the same hour are served from memory.
+     * The returned Mono does not block; the upstream call runs on the WebClient's event loop.
+     * Upstream calls go through {@link UpstreamResilience}; if Open-Meteo is unavailable, a
+     * recently expired forecast for the tile is served instead.
+     * 
+     * @param lati the latitude coordinate of the location
+     * @param longi the longitude coordinate of the location
+     * @return Mono emitting a WeatherLocationDto containing current conditions, hourly and daily forecasts,
+     *         or an error if the Open-Meteo API response cannot be parsed
+     */
+    public Mono<WeatherLocationDto> getWeatherData(double lati, double longi)
+    {
+        return getWeatherData(lati, longi, ForecastSelection.FULL);
+    }
+
+    /**
+     * Retrieves the selected part of the weather data for a location. Sections that are not
+     * selected are null; see {@link #getForecastColumns(double, double, ForecastSelection)}.
+     * 
      * @param lati the latitude coordinate of the location
      * @param longi the longitude coordinate of the location
-     * @return WeatherLocationDto containing current conditions, hourly and daily forecasts
-     * @throws RuntimeException if there's an error parsing the Open-Meteo API response
+     * @param selection the sections, variables and time range to retrieve
+     * @return Mono emitting the selected weather data
+     */
+    public Mono<WeatherLocationDto> getWeatherData(double lati, double longi, ForecastSelection selection)
+    {
+        return getForecastColumns(lati, longi, selection).map(this::toLocationDto);
+    }
+
+    /**
+     * Retrieves the forecast for a location in columnar form: one primitive array per
+     * hourly or daily variable, with times as epoch seconds.
+     * 
+     * @param lati the latitude coordinate of the location
+     * @param longi the longitude coordinate of the location
+     * @return Mono emitting the columnar forecast, or an error if the Open-Meteo API response cannot be parsed
+     *         or Open-Meteo is unavailable and no stale forecast is cached
+     */
+    public Mono<WeatherForecastColumnsDto> getForecastColumns(double lati, double longi)
+    {
+        return getForecastColumns(lati, longi, ForecastSelection.FULL);
+    }
+
+    /**
+     * Retrieves the selected part of the forecast for a location in columnar form. Sections and
+     * variables that are not selected are null.
+     * 
+     * A cached forecast for a wider selection (e.g. the full forecast) is cut down to the
+     * selection; otherwise only the selection is requested from Open-Meteo and cached, so a
+     * current-conditions widget does not fetch and parse a week of hourly data.
+     * 
+     * @param lati the latitude coordinate of the location
+     * @param longi the longitude coordinate of the location
+     * @param selection the sections, variables and time range to retrieve
+     * @return Mono emitting the columnar forecast, or an error if the Open-Meteo API response cannot be parsed
+     *         or Open-Meteo is unavailable and no stale forecast is cached
+     */
+    public Mono<WeatherForecastColumnsDto> getForecastColumns(double lati, double longi, ForecastSelection selection)
+    {
+        return Mono.defer(() -> {
+            WeatherForecastCache.TileKey tile = forecastCache.tileFor(lati, longi);
+            WeatherForecastColumnsDto cached = forecastCache.get(tile, selection);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+
+            // Concurrent misses for the same tile and selection share one upstream request
+            String key = tile.latIndex() + "," + tile.lonIndex()
+                    + (selection.equals(ForecastSelection.FULL) ? "" : selection.upstreamQuery());
+            Mono<WeatherForecastColumnsDto> fetched = requestCoalescer.coalesce("open-meteo", key,
+                    () -> resilience.call("open-meteo", true,
+                                    () -> fetchForecast(forecastCache.centerLatitude(tile), forecastCache.centerLongitude(tile), selection))
+                            .doOnNext(forecast -> forecastCache.put(tile, selection, forecast)));
+            return resilience.withStale("open-meteo", fetched, () -> forecastCache.getStale(tile, selection));
+        });
+    }
+
+    /**
+     * Retrieves forecasts for several locations at once, e.g. every point of a trip.
+     * 
+     * Points are snapped to cache tiles. Cached tiles are served from memory, and all missing
+     * tiles are fetched from Open-Meteo in one request with comma-separated coordinates (split
+     * into requests of at most {@code travelbuddy.weather.batch-size} tiles). If Open-Meteo is
+     * unavailable, recently expired forecasts are served for the tiles that have one.
+     * 
+     * @param points the locations
+     * @return Mono emitting one forecast per point, in the order of the points
+     */
+    public Mono<List<WeatherForecastColumnsDto>> getForecastColumns(List<Coordinates> points)
+    {
+        return Mono.defer(() -> {
+            List<WeatherForecastCache.TileKey> tiles = new ArrayList<>(points.size());
+            Map<WeatherForecastCache.TileKey, WeatherForecastColumnsDto> forecasts = new HashMap<>();
+            Set<WeatherForecastCache.TileKey> missing = new LinkedHashSet<>();
+            for (Coordinates point : points) {
+                WeatherForecastCache.TileKey tile = forecastCache.tileFor(point.latitude(), point.longitude());
+                tiles.add(tile);
+                if (!forecasts.containsKey(tile) && !missing.contains(tile)) {
+                    WeatherForecastColumnsDto cached = forecastCache.get(tile);
+                    if (cached != null) {
+                        forecasts.put(tile, cached);
+                    } else {
+                        missing.add(tile);
+                    }
+                }
+            }
+
+            List<List<WeatherForecastCache.TileKey>> batches = new ArrayList<>();
+            List<WeatherForecastCache.TileKey> missingTiles = new ArrayList<>(missing);
+            for (int i = 0; i < missingTiles.size(); i += batchSize) {
+                batches.add(missingTiles.subList(i, Math.min(i + batchSize, missingTiles.size())));
+            }
+            return Flux.fromIterable(batches)
+                    .flatMap(this::fetchTiles)
+                    .doOnNext(forecasts::putAll)
+                    .then(Mono.fromCallable(() -> tiles.stream().map(forecasts::get).toList()));
+        });
+    }
+
+    /**
+     * Fetches a batch of missing tiles. A single tile takes the regular single-location path,
+     * so it is shared with concurrent single-location requests for the same tile.
+     */
+    private Mono<Map<WeatherForecastCache.TileKey, WeatherForecastColumnsDto>> fetchTiles(
+            List<WeatherForecastCache.TileKey> tiles)
+    {
+        if (tiles.size() == 1) {
+            WeatherForecastCache.TileKey tile = tiles.get(0);
+            return getForecastColumns(forecastCache.centerLatitude(tile), forecastCache.centerLongitude(tile))
+                    .map(forecast -> Map.of(tile, forecast));
+        }
+        return resilience.withStale("open-meteo", fetchBatch(tiles), () -> {
+            Map<WeatherForecastCache.TileKey, WeatherForecastColumnsDto> stale = new HashMap<>();
+            for (WeatherForecastCache.TileKey tile : tiles) {
+                WeatherForecastColumnsDto forecast = forecastCache.getStale(tile);
+                if (forecast == null) {
+                    return null;
+                }
+                stale.put(tile, forecast);
+            }
+            return stale;
+        });
+    }
+
+    /**
+     * Fetches fresh forecasts for tiles and stores them in the cache, without a stale fallback.
+     * Used by {@link WeatherPrewarmer} to refresh tiles before they are requested.
+     * 
+     * @param tiles the tiles, at most {@code travelbuddy.weather.batch-size} of them
+     * @return Mono emitting the number of tiles refreshed, or an error if Open-Meteo is unavailable
+     */
+    public Mono<Integer> refreshTiles(List<WeatherForecastCache.TileKey> tiles)
+    {
+        return fetchBatch(tiles).map(Map::size);
+    }
+
+    /**
+     * Fetches several tiles in one coalesced, resilient Open-Meteo request and caches the results.
+     */
+    private Mono<Map<WeatherForecastCache.TileKey, WeatherForecastColumnsDto>> fetchBatch(
+            List<WeatherForecastCache.TileKey> tiles)
+    {
+        String key = tiles.stream()
+                .map(tile -> tile.latIndex() + "," + tile.lonIndex())
+                .collect(Collectors.joining(";", "batch:", ""));
+        return requestCoalescer.coalesce("open-meteo", key,
+                () -> resilience.call("open-meteo", true, () -> fetchForecasts(tiles))
+                        .map(forecasts -> {
+                            Map<WeatherForecastCache.TileKey, WeatherForecastColumnsDto> byTile = new HashMap<>();
+                            for (int i = 0; i < tiles.size(); i++) {
+                                forecastCache.put(tiles.get(i), forecasts.get(i));
+                                byTile.put(tiles.get(i), forecasts.get(i));
+                            }
+                            return byTile;
+                        }));
+    }
+
+    /**
+     * Fetches the forecasts for the centres of several tiles in one Open-Meteo request.
      */
-    public WeatherLocationDto getWeatherData(double lati, double longi)
+    private Mono<List<WeatherForecastColumnsDto>> fetchForecasts(List<WeatherForecastCache.TileKey> tiles)
     {
         String url = UriComponentsBuilder.fromUriString(URL_BASE)
+                .queryParam("latitude", tiles.stream()
+                        .map(tile -> String.valueOf(forecastCache.centerLatitude(tile)))
+                        .collect(Collectors.joining(",")))
+                .queryParam("longitude", tiles.stream()
+                        .map(tile -> String.valueOf(forecastCache.centerLongitude(tile)))
+                        .collect(Collectors.joining(",")))
+                .build()
+                .toUriString();
+
+        return webClient.get()
+                .uri(url)
+                .header("User-Agent", "TravelBuddy/1.0")
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .map(body -> {
+                    List<WeatherForecastColumnsDto> forecasts = WeatherResponseParser.parseAll(objectMapper.getFactory(), body);
+                    if (forecasts.size() != tiles.size()) {
+                        throw new RuntimeException("Expected " + tiles.size() + " forecasts from open-meteo but got " + forecasts.size());
+                    }
+                    return forecasts;
+                });
+    }
+
+    /**
+     * Restricts a forecast to the hours and days between two local dates, inclusive. The current
+     * conditions are kept. The forecast itself is not modified, as it may be shared with the cache.
+     * 
+     * @param forecast the forecast
+     * @param from first local date to keep
+     * @param to last local date to keep
+     * @return a forecast with only the hours and days in the range, possibly none
+     */
+    public static WeatherForecastColumnsDto clipToDates(WeatherForecastColumnsDto forecast, LocalDate from, LocalDate to)
+    {
+        long start = from.toEpochDay() * 86400 - forecast.getTimezoneOffset();
+        long end = to.plusDays(1).toEpochDay() * 86400 - forecast.getTimezoneOffset();
+
+        WeatherForecastColumnsDto.Hourly hourly = forecast.getHourly();
+        WeatherForecastColumnsDto.Hourly clippedHourly = null;
+        if (hourly != null && hourly.getTime() != null) {
+            int first = indexOf(hourly.getTime(), start);
+            int last = indexOf(hourly.getTime(), end);
+            clippedHourly = new WeatherForecastColumnsDto.Hourly(
+                slice(hourly.getTime(), first, last),
+                slice(hourly.getTemperature(), first, last),
+                slice(hourly.getApparentTemperature(), first, last),
+                slice(hourly.getHumidity(), first, last),
+                slice(hourly.getCloudCover(), first, last),
+                slice(hourly.getWeatherCode(), first, last),
+                slice(hourly.getWindSpeed(), first, last),
+                slice(hourly.getPrecipitationProbability(), first, last));
+        }
+
+        WeatherForecastColumnsDto.Daily daily = forecast.getDaily();
+        WeatherForecastColumnsDto.Daily clippedDaily = null;
+        if (daily != null && daily.getTime() != null) {
+            int first = indexOf(daily.getTime(), start);
+            int last = indexOf(daily.getTime(), end);
+            clippedDaily = new WeatherForecastColumnsDto.Daily(
+                slice(daily.getTime(), first, last),
+                slice(daily.getWeatherCode(), first, last),
+                slice(daily.getTempMin(), first, last),
+                slice(daily.getTempMax(), first, last),
+                slice(daily.getSunrise(), first, last),
+                slice(daily.getSunset(), first, last),
+                slice(daily.getRainSum(), first, last),
+                slice(daily.getSnowfallSum(), first, last),
+                slice(daily.getPrecipitationProbability(), first, last));
+        }
+
+        return new WeatherForecastColumnsDto(
+            forecast.getLatitude(),
+            forecast.getLongitude(),
+            forecast.getTimezone(),
+            forecast.getTimezoneOffset(),
+            forecast.getElevation(),
+            forecast.getCurrent(),
+            clippedHourly,
+            clippedDaily);
+    }
+
+    /**
+     * Returns the index of the first time that is not before the given epoch second.
+     */
+    static int indexOf(long[] times, long epochSecond)
+    {
+        int index = Arrays.binarySearch(times, epochSecond);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Copies a range of a column; a column that was not requested (null) stays null.
+     */
+    static long[] slice(long[] values, int from, int to)
+    {
+        return values == null ? null : Arrays.copyOfRange(values, from, to);
+    }
+
+    static int[] slice(int[] values, int from, int to)
+    {
+        return values == null ? null : Arrays.copyOfRange(values, from, to);
+    }
+
+    static double[] slice(double[] values, int from, int to)
+    {
+        return values == null ? null : Arrays.copyOfRange(values, from, to);
+    }
+
+    /**
+     * Fetches and parses the selected forecast for a coordinate from Open-Meteo, bypassing the cache.
+     */
+    private Mono<WeatherForecastColumnsDto> fetchForecast(double lati, double longi, ForecastSelection selection)
+    {
+        String url = UriComponentsBuilder.fromUriString(API_URL + selection.upstreamQuery())
                 .queryParam("latitude", lati)
                 .queryParam("longitude", longi)
                 .build()
                 .toUriString();
-        
-        String response = webClient.get()
+
+        return webClient.get()
                 .uri(url)
                 .header("User-Agent", "TravelBuddy/1.0")
                 .retrieve()
-                .bodyToMono(String.class)
-                .block();
-                
-                    try {
-                        JsonNode root = objectMapper.readTree(response);
-                        JsonNode currentNode = root.get("current");
-                        JsonNode hourlyNode = root.get("hourly");
-                        JsonNode dailyNode = root.get("daily");
-
-                        List<WeatherHourlyDto> hourlyData = new ArrayList<>();
-                        List<WeatherDailyDto> dailyData = new ArrayList<>();
-                        
-
-                        WeatherCurrentDto current = new WeatherCurrentDto(
-                            currentNode.get("time").asText(),
-                        currentNode.get("weather_code").asText(),
-                        currentNode.get("temperature_2m").asDouble(),
-                        currentNode.get("apparent_temperature").asDouble(),
-                        currentNode.get("relative_humidity_2m").asInt(),
-                        currentNode.get("precipitation").asInt());
-
-
-                        JsonNode hourlyTime = hourlyNode.get("time");
-                        JsonNode hourlyTemp = hourlyNode.get("temperature_2m");
-                        JsonNode hourlyTempApp = hourlyNode.get("apparent_temperature");
-                        JsonNode hourlyHumidity = hourlyNode.get("relative_humidity_2m");
-                        JsonNode hourlyCloudCover = hourlyNode.get("cloud_cover");
-                        JsonNode hourlyWeatherCode = hourlyNode.get("weather_code");
-                        JsonNode hourlyWindSpeed = hourlyNode.get("wind_speed_10m");
-                        JsonNode hourlyPrecipitationprob = hourlyNode.get("precipitation_probability");
-
-                        for(int i=0; i < hourlyTime.size(); i++)
-                        {
-                            WeatherHourlyDto hourly = new WeatherHourlyDto(
-                                hourlyTime.get(i).asText(), 
-                                hourlyTemp.get(i).asDouble(), 
-                                hourlyTempApp.get(i).asDouble(), 
-                                hourlyHumidity.get(i).asInt(),
-                                hourlyCloudCover.get(i).asInt(),
-                                hourlyWeatherCode.get(i).asText(),
-                                hourlyWindSpeed.get(i).asDouble(),
-                                hourlyPrecipitationprob.get(i).asInt());
-                            hourlyData.add(hourly);
-                        }
-
-
-                        JsonNode dailyTime = dailyNode.get("time");
-                        JsonNode dailyWeatherCode = dailyNode.get("weather_code");
-                        JsonNode dailyTempMin = dailyNode.get("temperature_2m_min");
-                        JsonNode dailyTempMax = dailyNode.get("temperature_2m_max");
-                        JsonNode dailySunrise = dailyNode.get("sunrise");
-                        JsonNode dailySunset = dailyNode.get("sunset");
-                        JsonNode dailyRainSum = dailyNode.get("rain_sum");
-                        JsonNode dailySnowSum = dailyNode.get("snowfall_sum");
-                        JsonNode dailyPrecipitationprob = dailyNode.get("precipitation_probability_mean");
-
-                        for(int i=0; i < dailyTime.size(); i++)
-                        {
-                            WeatherDailyDto daily = new WeatherDailyDto(
-                                dailyTime.get(i).asText(),
-                                dailyWeatherCode.get(i).asText(),
-                                dailyTempMin.get(i).asDouble(),
-                                dailyTempMax.get(i).asDouble(),
-                                dailySunrise.get(i).asText(),
-                                dailySunset.get(i).asText(),
-                                dailyRainSum.get(i).asInt(),
-                                dailySnowSum.get(i).asInt(),
-                                dailyPrecipitationprob.get(i).asInt());
-                            dailyData.add(daily);
-                        }
-
-
-                        WeatherLocationDto weatherLocation = new WeatherLocationDto(
-                            root.get("latitude").asDouble(), 
-                            root.get("longitude").asDouble(), 
-                            root.get("utc_offset_seconds").asLong(),
-                            root.get("elevation").asDouble(),
-                            current,
-                            dailyData,
-                            hourlyData);
-
-
-
-
-                        return weatherLocation;
-                    } catch (Exception e) {
-                        throw new RuntimeException("Error parsing open-meteo API response", e);
-                    }
-                }
+                .bodyToMono(byte[].class)
+                .map(body -> WeatherResponseParser.parse(objectMapper.getFactory(), body));
+    }
+
+    /**
+     * Expands a columnar forecast into the per-hour and per-day DTOs of WeatherLocationDto.
+     * Times are rendered in the location's local time zone, as Open-Meteo does with timezone=auto.
+     * Sections missing from the forecast are left null.
+     */
+    private WeatherLocationDto toLocationDto(WeatherForecastColumnsDto forecast)
+    {
+        ZoneId zone = zoneOf(forecast);
+        WeatherForecastColumnsDto.Current currentColumns = forecast.getCurrent();
+        WeatherForecastColumnsDto.Hourly hourlyColumns = forecast.getHourly();
+        WeatherForecastColumnsDto.Daily dailyColumns = forecast.getDaily();
+
+        WeatherCurrentDto current = currentColumns == null ? null : new WeatherCurrentDto(
+            formatLocal(currentColumns.getTime(), zone, LOCAL_TIME_FORMAT),
+            String.valueOf(currentColumns.getWeatherCode()),
+            currentColumns.getTemperature(),
+            currentColumns.getApparentTemperature(),
+            currentColumns.getHumidity(),
+            (int) currentColumns.getPrecipitation());
+
+        List<WeatherHourlyDto> hourlyData = hourlyColumns == null ? null : new ArrayList<>(hourlyColumns.getTime().length);
+        for (int i = 0; hourlyColumns != null && i < hourlyColumns.getTime().length; i++)
+        {
+            hourlyData.add(new WeatherHourlyDto(
+                formatLocal(hourlyColumns.getTime()[i], zone, LOCAL_TIME_FORMAT),
+                hourlyColumns.getTemperature()[i],
+                hourlyColumns.getApparentTemperature()[i],
+                hourlyColumns.getHumidity()[i],
+                hourlyColumns.getCloudCover()[i],
+                String.valueOf(hourlyColumns.getWeatherCode()[i]),
+                hourlyColumns.getWindSpeed()[i],
+                hourlyColumns.getPrecipitationProbability()[i]));
+        }
+
+        List<WeatherDailyDto> dailyData = dailyColumns == null ? null : new ArrayList<>(dailyColumns.getTime().length);
+        for (int i = 0; dailyColumns != null && i < dailyColumns.getTime().length; i++)
+        {
+            dailyData.add(new WeatherDailyDto(
+                formatLocal(dailyColumns.getTime()[i], zone, LOCAL_DATE_FORMAT),
+                String.valueOf(dailyColumns.getWeatherCode()[i]),
+                dailyColumns.getTempMin()[i],
+                dailyColumns.getTempMax()[i],
+                formatLocal(dailyColumns.getSunrise()[i], zone, LOCAL_TIME_FORMAT),
+                formatLocal(dailyColumns.getSunset()[i], zone, LOCAL_TIME_FORMAT),
+                (int) dailyColumns.getRainSum()[i],
+                (int) dailyColumns.getSnowfallSum()[i],
+                dailyColumns.getPrecipitationProbability()[i]));
+        }
+
+        return new WeatherLocationDto(
+            forecast.getLatitude(),
+            forecast.getLongitude(),
+            forecast.getTimezoneOffset(),
+            forecast.getElevation(),
+            current,
+            dailyData,
+            hourlyData);
+    }
+
+    /**
+     * Resolves the location's time zone, falling back to its fixed UTC offset if the
+     * zone id is missing or unknown to the JVM.
+     */
+    private static ZoneId zoneOf(WeatherForecastColumnsDto forecast)
+    {
+        if (forecast.getTimezone() != null) {
+            try {
+                return ZoneId.of(forecast.getTimezone());
+            } catch (DateTimeException e) {
+                // fall through to the fixed offset
+            }
+        }
+        return ZoneOffset.ofTotalSeconds((int) forecast.getTimezoneOffset());
+    }
+
+    private static String formatLocal(long epochSecond, ZoneId zone, DateTimeFormatter format)
+    {
+        return format.format(Instant.ofEpochSecond(epochSecond).atZone(zone));
+    }
+
+    /**
+     * A location to retrieve a forecast for.
+     */
+    public record Coordinates(double latitude, double longitude) {
     }
+}
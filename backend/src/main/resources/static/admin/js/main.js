@@ -31,10 +31,22 @@ document.addEventListener('DOMContentLoaded', function () {
         };
     }
 
+    // Fetch every page of a keyset-paginated listing and concatenate the items
+    async function fetchAllPages(url) {
+        const items = [];
+        let after = null;
+        do {
+            const query = after === null ? '?limit=500' : `?limit=500&after=${after}`;
+            const page = await fetch(url + query).then(res => res.json());
+            items.push(...page.items);
+            after = page.nextCursor;
+        } while (after != null);
+        return items;
+    }
+
     // Fetch and display users
     function fetchUsers() {
-        fetch('/api/users')
-            .then(res => res.json())
+        fetchAllPages('/api/users')
             .then(users => {
                 // Separate 'admin' and sort the rest alphabetically
                 const adminUser = users.find(u => u.username === 'admin');
@@ -90,8 +102,7 @@ document.addEventListener('DOMContentLoaded', function () {
 
     // Fetch and display trips
     function fetchTrips() {
-        fetch('/api/trips')
-            .then(res => res.json())
+        fetchAllPages('/api/trips')
             .then(trips => {
                 tripSection.innerHTML = '<h3>Trips</h3>' + trips.map(trip => `
                     <div class=\"trip-item\">\n
@@ -58,6 +58,30 @@ export async function getTripById(id) {
   );
 }
 
+/**
+ * Fetches everything the trip detail view needs in one request: the trip, its locations,
+ * the destination weather and optionally nearby points of interest.
+ * Weather and points of interest are parts of the form { status, data, message }, where
+ * status is OK, SKIPPED, TIMEOUT or UNAVAILABLE.
+ * @param {string} id - Trip identifier
+ * @param {Object} [options] - Points of interest to include
+ * @param {Array<string>} [options.types=[]] - POI types; none skips the search
+ * @param {number} [options.radius=1000] - POI search radius in meters
+ * @returns {Promise<Object>} Trip detail object
+ */
+
+export async function getTripDetail(id, { types = [], radius = 1000 } = {}) {
+  const qs = new URLSearchParams({
+    radius: radius.toString(),
+    types: types.join(',')
+  });
+  return await fetchJsonOrThrow(
+    `${API_BASE}/trips/${encodeURIComponent(id)}/detail?${qs.toString()}`,
+    {},
+    `Trip not found (id=${id})`
+  );
+}
+
 /**
  * Creates a new trip.
  * @param {Object} payload - Trip data
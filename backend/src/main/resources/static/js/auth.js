@@ -135,13 +135,73 @@ export async function register(username, email, password) {
 }
 
 // Handle logout. This function is called when the user clicks the logout button.
-// 1. We remove the token from localStorage.
-// 2. We redirect the user to the home page.
+// 1. We ask the backend to revoke the refresh token cookie (fire and forget).
+// 2. We remove the token from localStorage.
+// 3. We redirect the user to the home page.
 export function logout() {
+    fetch('/api/users/logout', { method: 'POST' }).catch(() => {});
     removeToken();
     window.location.hash = 'home';
 }
 
+//=============================================
+// TOKEN REFRESH
+//=============================================
+
+// Refresh the token this many milliseconds before it expires.
+const REFRESH_MARGIN_MS = 60 * 1000;
+let pendingRefresh = null;
+
+// Check if the token expires within the refresh margin.
+function isTokenExpiring(token) {
+    try {
+        const payload = JSON.parse(atob(token.split('.')[1]));
+        return payload.exp * 1000 - Date.now() < REFRESH_MARGIN_MS;
+    } catch (error) {
+        return false;
+    }
+}
+
+// How long to wait for another tab's refresh to store its token, and how often to try.
+const ROTATED_RETRY_DELAY_MS = 500;
+const ROTATED_MAX_RETRIES = 3;
+
+// Get a new token using the HttpOnly refresh token cookie set at login. This is much cheaper
+// for the backend than logging in again. Concurrent callers share a single refresh request,
+// because each refresh token can only be used once.
+export function refreshToken() {
+    if (!pendingRefresh) {
+        pendingRefresh = requestRefresh(0)
+            .catch(() => null)
+            .finally(() => { pendingRefresh = null; });
+    }
+    return pendingRefresh;
+}
+
+// 409 means another tab refreshed with the same cookie a moment ago. The session is still
+// valid, so we keep the stored token: once the other tab has stored its new token we use it,
+// otherwise we refresh again with the new cookie the other tab received.
+async function requestRefresh(attempt) {
+    const response = await fetch('/api/users/refresh', { method: 'POST' });
+    if (response.status === 409 && attempt < ROTATED_MAX_RETRIES) {
+        await new Promise(resolve => setTimeout(resolve, ROTATED_RETRY_DELAY_MS));
+        const stored = getToken();
+        if (stored && !isTokenExpiring(stored)) {
+            return stored;
+        }
+        return requestRefresh(attempt + 1);
+    }
+    if (!response.ok) {
+        if (response.status !== 409) {
+            removeToken();
+        }
+        return null;
+    }
+    const token = await response.text();
+    setToken(token);
+    return token;
+}
+
 //=============================================
 // FETCH HELPER WITH AUTH
 //=============================================
@@ -149,8 +209,12 @@ export function logout() {
 // This function is used to make authenticated API requests.It is used in the api.js file.
 // It gets the token from localStorage and adds it to the headers of the request.
 // This is done to make sure that the user is authenticated and has a valid token.
-export function fetchWithAuth(url, options = {}) {
-    const token = getToken();
+// If the token is about to expire, it is refreshed first.
+export async function fetchWithAuth(url, options = {}) {
+    let token = getToken();
+    if (token && isTokenExpiring(token)) {
+        token = await refreshToken();
+    }
     if (token) {
         options.headers = {
             ...options.headers,
@@ -76,8 +76,8 @@ export function fitMapToMarkers(map, markers) {
 // POI FILTER PANEL (CHECKBOXES)
 //=============================================
 
-// Adds a collapsable POI filter panel
-export function addPoiFilterPanel(map, onFiltersChanged) {
+// Adds a collapsable POI filter panel; the initial types start checked
+export function addPoiFilterPanel(map, onFiltersChanged, initialTypes = []) {
   const categories = {
     Amenity: ['restaurant', 'cafe', 'theatre', 'bar', 'pub', 'parking'],
     Tourism: ['hotel', 'museum', 'attraction', 'viewpoint', 'hostel', 'information'],
@@ -161,7 +161,7 @@ export function addPoiFilterPanel(map, onFiltersChanged) {
         checkbox.type = 'checkbox';
         checkbox.value = type;
         checkbox.id = `filter-${type}`;
-        checkbox.checked = false;
+        checkbox.checked = initialTypes.includes(type);
 
         const label = document.createElement('label');
         label.className = 'form-check-label';
@@ -8,7 +8,7 @@ import { openEditTripForm, openBuddiesModal } from "./tripModal.js";
 import { getCurrentUser } from "./auth.js";
 import { addPoiFilterPanel, setMapMarker, clearMapMarkers } from "./map.js";
 import {
-  getTripById,
+  getTripDetail,
   deleteTrip,
   getLocationsByTrip,
   createLocation,
@@ -23,6 +23,10 @@ import {
 app.replaceChildren();
 app.className = 'trip-detail-view';
 
+// Points of interest shown around the destination until the user changes the filter
+const DEFAULT_POI_TYPES = ["restaurant", "cafe", "museum", "attraction"];
+const DEFAULT_POI_RADIUS = 1000;
+
 //=============================================
 // MAIN EXPORT FUNCTION
 //=============================================
@@ -41,14 +45,17 @@ export async function loadTripDetail(id) {
   //=============================================
   // FETCH TRIP DATA
   //=============================================
+  // One request returns the trip, its locations, the destination weather and the
+  // points of interest of the default filter.
 
-  let trip;
+  let detail;
   try {
-    trip = await getTripById(id);
+    detail = await getTripDetail(id, { types: DEFAULT_POI_TYPES, radius: DEFAULT_POI_RADIUS });
   } catch {
     app.appendChild(createElement("div", {}, "Trip not found."));
     return;
   }
+  const trip = detail.trip;
 
   //=============================================
   // CHECK USER PERMISSION
@@ -82,6 +89,7 @@ export async function loadTripDetail(id) {
       createElement("br"), `Status: ${trip.status}`
     )
   );
+  infoPanel.appendChild(renderWeatherSection(detail.weather));
   layout.appendChild(infoPanel);
 
   // Ensure Add Buddies button has click event
@@ -342,14 +350,15 @@ export async function loadTripDetail(id) {
 
     // POIs
     let poiMarkers = [];
-    let currentTypes = [];
-    let currentRadius = 1000;
+    let currentTypes = DEFAULT_POI_TYPES;
+    let currentRadius = DEFAULT_POI_RADIUS;
 
+    // Only a filter change fetches points of interest; the first ones come with the detail
     addPoiFilterPanel(map, (types, radius) => {
       currentTypes = types;
       currentRadius = radius;
       loadPois();
-    });
+    }, DEFAULT_POI_TYPES);
 
     async function loadPois() {
       poiMarkers = clearMapMarkers(map, poiMarkers);
@@ -361,7 +370,10 @@ export async function loadTripDetail(id) {
         radius: currentRadius,
         types: currentTypes
       });
+      renderPois(pois);
+    }
 
+    function renderPois(pois) {
       pois.forEach((p) => {
         const popupContent = `
           <strong>${p.name}</strong><br>
@@ -414,11 +426,57 @@ export async function loadTripDetail(id) {
       });
     });
 
-    // Initial POI load
-    loadPois();
+    // Initial points of interest from the detail response; none if the search was skipped or failed
+    if (detail.pointsOfInterest?.status === "OK") {
+      renderPois(detail.pointsOfInterest.data);
+    }
+  }
+
+  // The detail response already contains the locations; they are reloaded after changes
+  renderLocationsList(detail.locations);
+  initMapWithLocations(detail.locations);
+}
+
+//=============================================
+// RENDER WEATHER SECTION
+//=============================================
+
+// This function renders the daily forecast at the destination for the days of the trip.
+// The weather part has a status; anything but OK shows a short notice instead.
+function renderWeatherSection(weather) {
+  const section = createElement(
+    "div",
+    { className: "buddy-section" },
+    createElement("label", {}, "Weather at the destination:  ")
+  );
+
+  if (weather.status !== "OK") {
+    const notice = weather.status === "SKIPPED"
+      ? "No forecast, the trip has no coordinates."
+      : "The weather forecast is currently unavailable.";
+    section.appendChild(createElement("p", {}, notice));
+    return section;
+  }
+
+  const forecast = weather.data;
+  const daily = forecast.daily;
+  if (!daily || !daily.time.length) {
+    section.appendChild(createElement("p", {}, "No forecast for the trip dates yet."));
+    return section;
   }
 
-  await loadAndRenderLocations();
+  const list = createElement("div");
+  daily.time.forEach((time, i) => {
+    // Times are epoch seconds of local midnight; shift by the offset to get the local date
+    const [year, month, day] = new Date((time + forecast.timezoneOffset) * 1000).toISOString().slice(0, 10).split("-");
+    list.appendChild(createElement(
+      "span",
+      { className: "badge buddy-badge" },
+      `${day}.${month}.${year}: ${daily.tempMin[i].toFixed(0)}–${daily.tempMax[i].toFixed(0)} °C, rain ${daily.precipitationProbability[i]}%`
+    ));
+  });
+  section.appendChild(list);
+  return section;
 }
 
 //=============================================
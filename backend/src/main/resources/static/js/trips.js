@@ -6,6 +6,22 @@ import { createElement } from "./createElement.js";
 import { getAllTrips, createTrip, getTripsByOrganizer, getTripsByParticipant } from "./api.js";
 import { isLoggedIn, getCurrentUser } from "./auth.js";
 
+//=============================================
+// TYPEAHEAD CLIENT ID
+//=============================================
+
+// Random id of this browser tab, sent with typeahead searches. The backend drops our older
+// search when a newer one arrives; without the id it would fall back to the IP address,
+// which many users behind the same proxy share.
+function typeaheadClientId() {
+  let id = sessionStorage.getItem('typeaheadClient');
+  if (!id) {
+    id = window.crypto?.randomUUID ? crypto.randomUUID() : Math.random().toString(36).slice(2) + Date.now().toString(36);
+    sessionStorage.setItem('typeaheadClient', id);
+  }
+  return id;
+}
+
 //=============================================
 // MAIN: VIEW RENDERER
 //=============================================
@@ -193,7 +209,7 @@ export async function loadTrips(page = 1) {
       }
       debounceTimeout = setTimeout(async () => {
         try {
-          const locations = await fetch(`/api/locations/search?query=${encodeURIComponent(query)}`).then(res => res.json());
+          const locations = await fetch(`/api/locations/search?query=${encodeURIComponent(query)}&typeahead=true&client=${typeaheadClientId()}`).then(res => res.json());
           if (locations.length) {
             const loc = locations[0];
             selectedLat = loc.latitude;
@@ -0,0 +1,125 @@
+package com.travelbuddy.travelbuddy.JWT;
+
+import com.travelbuddy.travelbuddy.model.SigningKey;
+import com.travelbuddy.travelbuddy.repository.SigningKeyRepository;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reloads of the {@link KeyRing} triggered by unknown key ids: at most one per interval, however
+ * many requests with forged ids arrive at once.
+ */
+class KeyRingTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-06-01T12:00:00Z"));
+    private final SigningKeyRepository repository = mock(SigningKeyRepository.class);
+    private final List<SigningKey> stored = new ArrayList<>(List.of(signingKey("first")));
+
+    @Test
+    void concurrentUnknownKidsReloadOnce() throws Exception {
+        KeyRing keyRing = keyRing();
+        clock.advance(Duration.ofSeconds(10));
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> lookups = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            String kid = "forged-" + i;
+            lookups.add(executor.submit(() -> {
+                start.await();
+                return keyRing.verificationKey(kid);
+            }));
+        }
+        start.countDown();
+        for (Future<?> lookup : lookups) {
+            assertNull(lookup.get());
+        }
+        executor.shutdown();
+
+        // Once at startup and once for all the forged ids
+        verify(repository, times(2)).findByCreatedAtAfterOrderByCreatedAtDesc(any());
+    }
+
+    @Test
+    void unknownKidReloadsAtMostOncePerInterval() {
+        KeyRing keyRing = keyRing();
+        assertNotNull(keyRing.verificationKey("first"));
+
+        // A key created by another instance right after our startup reload is not visible yet
+        stored.add(0, signingKey("second"));
+        assertNull(keyRing.verificationKey("second"));
+        verify(repository, times(1)).findByCreatedAtAfterOrderByCreatedAtDesc(any());
+
+        clock.advance(Duration.ofSeconds(5));
+        assertNotNull(keyRing.verificationKey("second"));
+        assertNull(keyRing.verificationKey("forged"));
+        verify(repository, times(2)).findByCreatedAtAfterOrderByCreatedAtDesc(any());
+    }
+
+    private KeyRing keyRing() {
+        when(repository.findByCreatedAtAfterOrderByCreatedAtDesc(any())).thenAnswer(invocation -> List.copyOf(stored));
+        KeyRing keyRing = new KeyRing(repository, Duration.ofDays(1), Duration.ofHours(2), clock);
+        keyRing.init();
+        return keyRing;
+    }
+
+    private SigningKey signingKey(String kid) {
+        return SigningKey.builder()
+                .kid(kid)
+                .secret(Base64.getEncoder().encodeToString(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded()))
+                .createdAt(clock.instant())
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.travelbuddy.travelbuddy.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Chunking of {@link NdjsonStreams} around the chunk size, against an in-memory table of ids.
+ */
+class NdjsonStreamsTest {
+
+    private static final int CHUNK = NdjsonStreams.CHUNK_SIZE;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writesEveryRowOnceAtAnyTableSize() throws IOException {
+        for (int rows : new int[] {0, 1, CHUNK - 1, CHUNK, CHUNK + 1, 2 * CHUNK, 2 * CHUNK + 3}) {
+            List<Long> table = LongStream.rangeClosed(1, rows).map(id -> id * 3).boxed().toList();
+            List<Long> cursors = new ArrayList<>();
+
+            List<String> lines = stream(table, cursors);
+
+            assertEquals(rows, lines.size(), rows + " rows");
+            for (int i = 0; i < rows; i++) {
+                assertEquals("{\"id\":" + table.get(i) + "}", lines.get(i));
+            }
+            // A full chunk may be followed by more rows, so it costs one more (possibly empty) fetch
+            assertEquals(rows / CHUNK + 1, cursors.size(), rows + " rows");
+            assertEquals(null, cursors.get(0));
+            for (int i = 1; i < cursors.size(); i++) {
+                assertEquals(table.get(i * CHUNK - 1), cursors.get(i));
+            }
+        }
+    }
+
+    // Runs the stream over the table, recording the cursor of each fetch
+    private List<String> stream(List<Long> table, List<Long> cursors) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NdjsonStreams.<Long>stream(objectMapper,
+                (after, limit) -> {
+                    cursors.add(after);
+                    return table.stream().filter(id -> after == null || id > after).limit(limit).toList();
+                },
+                id -> id,
+                id -> Map.of("id", id))
+                .writeTo(out);
+        String body = out.toString(StandardCharsets.UTF_8);
+        if (body.isEmpty()) {
+            return List.of();
+        }
+        assertEquals('\n', body.charAt(body.length() - 1));
+        return Arrays.asList(body.split("\n"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.travelbuddy.travelbuddy.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Admission, queueing and rejection in {@link Bulkhead}, with two slots and one queue place and
+ * upstream requests that complete only when the test says so.
+ */
+class BulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Bulkhead bulkhead = new Bulkhead("stub", 2, 1, meterRegistry);
+    // One sink per request the bulkhead has started, in start order
+    private final List<Sinks.One<String>> started = new ArrayList<>();
+
+    @Test
+    void queuesThenRejectsBeyondTheLimits() {
+        AtomicReference<String> first = subscribe();
+        subscribe();
+        AtomicReference<String> queued = subscribe();
+        assertEquals(2, started.size());
+        assertEquals(2, bulkhead.activeCount());
+        assertEquals(1, bulkhead.queuedCount());
+
+        // Rejected at once, without reaching the upstream
+        assertThrows(UpstreamResilience.UpstreamUnavailableException.class, () -> bulkhead.run(this::request).block());
+        assertEquals(2, started.size());
+        assertEquals(1, meterRegistry.counter("travelbuddy.upstream.bulkhead.rejected", "upstream", "stub").count());
+
+        // A finished request hands its slot to the waiter
+        started.get(0).tryEmitValue("one");
+        assertEquals("one", first.get());
+        assertEquals(3, started.size());
+        assertEquals(2, bulkhead.activeCount());
+        assertEquals(0, bulkhead.queuedCount());
+
+        started.get(1).tryEmitValue("two");
+        started.get(2).tryEmitValue("three");
+        assertEquals("three", queued.get());
+        assertEquals(0, bulkhead.activeCount());
+        assertEquals(3, meterRegistry.timer("travelbuddy.upstream.bulkhead.wait", "upstream", "stub").count());
+    }
+
+    @Test
+    void failedAndCancelledRequestsGiveTheirSlotsBack() {
+        subscribe();
+        Disposable running = bulkhead.run(this::request).subscribe(value -> { }, error -> { });
+        Disposable waiting = bulkhead.run(this::request).subscribe(value -> { }, error -> { });
+        assertEquals(1, bulkhead.queuedCount());
+
+        // A waiter that gives up leaves the queue without taking a slot
+        waiting.dispose();
+        assertEquals(0, bulkhead.queuedCount());
+        assertEquals(2, bulkhead.activeCount());
+
+        // A running request that is cancelled releases its slot
+        running.dispose();
+        assertEquals(1, bulkhead.activeCount());
+
+        // So does one that fails
+        started.get(0).tryEmitError(new IllegalStateException("upstream failed"));
+        assertEquals(0, bulkhead.activeCount());
+        assertEquals(2, started.size());
+
+        // And the bulkhead admits new requests again
+        subscribe();
+        subscribe();
+        assertEquals(2, bulkhead.activeCount());
+        assertEquals(0, meterRegistry.counter("travelbuddy.upstream.bulkhead.rejected", "upstream", "stub").count());
+    }
+
+    // Subscribes to a request through the bulkhead; the reference holds its value once it completes
+    private AtomicReference<String> subscribe() {
+        AtomicReference<String> result = new AtomicReference<>();
+        bulkhead.run(this::request).subscribe(result::set, error -> { });
+        assertNull(result.get());
+        return result;
+    }
+
+    private Mono<String> request() {
+        Sinks.One<String> sink = Sinks.one();
+        started.add(sink);
+        return sink.asMono();
+    }
+}
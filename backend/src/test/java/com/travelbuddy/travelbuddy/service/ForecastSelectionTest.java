@@ -0,0 +1,120 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.travelbuddy.travelbuddy.dto.WeatherForecastColumnsDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Serving a narrower {@link ForecastSelection} from a forecast fetched for a wider one, both
+ * directly and through the {@link WeatherForecastCache}.
+ */
+class ForecastSelectionTest {
+
+    private static final ForecastSelection CURRENT = ForecastSelection.of(List.of("current"), null, null, null);
+    private static final ForecastSelection NEXT_HOURS =
+            ForecastSelection.of(List.of("hourly"), List.of("temperature"), null, 6);
+    private static final ForecastSelection THREE_DAYS =
+            ForecastSelection.of(List.of("daily"), List.of("tempMax", "tempMin"), 3, null);
+
+    @Test
+    void wideSelectionsCoverNarrowerOnes() {
+        assertTrue(ForecastSelection.FULL.covers(CURRENT));
+        assertTrue(ForecastSelection.FULL.covers(NEXT_HOURS));
+        assertTrue(ForecastSelection.FULL.covers(THREE_DAYS));
+        assertTrue(NEXT_HOURS.covers(NEXT_HOURS));
+
+        // More days, more hours or other sections need another request
+        assertFalse(ForecastSelection.FULL.covers(ForecastSelection.of(null, null, 10, null)));
+        assertFalse(NEXT_HOURS.covers(ForecastSelection.of(List.of("hourly"), List.of("temperature"), null, 12)));
+        assertFalse(THREE_DAYS.covers(CURRENT));
+        assertFalse(CURRENT.covers(ForecastSelection.FULL));
+    }
+
+    @Test
+    void projectsAFullForecastToTheSelection() {
+        Instant midnight = Instant.parse("2026-06-01T00:00:00Z");
+        WeatherForecastColumnsDto full = fullForecast(midnight);
+        Instant now = midnight.plus(Duration.ofMinutes(5 * 60 + 30));
+
+        WeatherForecastColumnsDto hours = NEXT_HOURS.project(full, ForecastSelection.FULL, now);
+        // Six hours starting at the hour that contains now
+        assertEquals(6, hours.getHourly().getTime().length);
+        assertEquals(midnight.plus(Duration.ofHours(5)).getEpochSecond(), hours.getHourly().getTime()[0]);
+        assertArrayEquals(new double[] {5, 6, 7, 8, 9, 10}, hours.getHourly().getTemperature());
+        assertNull(hours.getHourly().getHumidity());
+        assertNull(hours.getCurrent());
+        assertNull(hours.getDaily());
+
+        WeatherForecastColumnsDto days = THREE_DAYS.project(full, ForecastSelection.FULL, now);
+        assertArrayEquals(new double[] {20, 21, 22}, days.getDaily().getTempMax());
+        assertNull(days.getDaily().getSunrise());
+        assertNull(days.getHourly());
+
+        assertSame(full.getCurrent(), CURRENT.project(full, ForecastSelection.FULL, now).getCurrent());
+        // The cached forecast is left as it was
+        assertEquals(7 * 24, full.getHourly().getTime().length);
+        assertSame(full, ForecastSelection.FULL.project(full, ForecastSelection.FULL, now));
+    }
+
+    @Test
+    void cacheServesNarrowSelectionsFromAWiderEntry() {
+        WeatherForecastCache cache = new WeatherForecastCache(0.05, 100, 5, Duration.ofHours(6), new SimpleMeterRegistry());
+        WeatherForecastCache.TileKey tile = cache.tileFor(47.37, 8.54);
+        cache.put(tile, ForecastSelection.FULL, fullForecast(Instant.now().truncatedTo(ChronoUnit.DAYS)));
+
+        assertEquals(3, cache.get(tile, THREE_DAYS).getDaily().getTime().length);
+        assertEquals(6, cache.get(tile, NEXT_HOURS).getHourly().getTime().length);
+        assertNull(cache.get(tile, ForecastSelection.of(null, null, 10, null)));
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+
+        // A narrow entry stored later does not replace the wide one, and a wider one replaces it
+        cache.put(tile, CURRENT, WeatherForecastColumnsDto.builder()
+                .current(WeatherForecastColumnsDto.Current.builder().temperature(30).build()).build());
+        assertEquals(30.0, cache.get(tile, CURRENT).getCurrent().getTemperature());
+        assertNotNull(cache.get(tile, THREE_DAYS));
+        cache.put(tile, ForecastSelection.FULL, fullForecast(Instant.now().truncatedTo(ChronoUnit.DAYS)));
+        assertEquals(21.0, cache.get(tile, CURRENT).getCurrent().getTemperature());
+    }
+
+    // Seven days of hourly temperatures counting the hours, and daily highs from 20 degrees up
+    private static WeatherForecastColumnsDto fullForecast(Instant midnight) {
+        long[] hours = new long[7 * 24];
+        double[] temperatures = new double[hours.length];
+        for (int i = 0; i < hours.length; i++) {
+            hours[i] = midnight.getEpochSecond() + i * 3600L;
+            temperatures[i] = i;
+        }
+        long[] days = new long[7];
+        double[] highs = new double[days.length];
+        long[] sunrises = new long[days.length];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = midnight.getEpochSecond() + i * 86400L;
+            highs[i] = 20 + i;
+            sunrises[i] = days[i] + 5 * 3600;
+        }
+        return WeatherForecastColumnsDto.builder()
+                .timezone("GMT")
+                .current(WeatherForecastColumnsDto.Current.builder().temperature(21).build())
+                .hourly(WeatherForecastColumnsDto.Hourly.builder()
+                        .time(hours).temperature(temperatures).humidity(new int[hours.length]).build())
+                .daily(WeatherForecastColumnsDto.Daily.builder()
+                        .time(days).tempMax(highs).tempMin(new double[days.length]).sunrise(sunrises).build())
+                .build();
+    }
+}
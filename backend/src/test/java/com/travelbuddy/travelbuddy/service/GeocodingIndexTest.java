@@ -0,0 +1,133 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Negative results, the size cap and the file compaction of {@link GeocodingIndex}.
+ */
+class GeocodingIndexTest {
+
+    @TempDir
+    private Path directory;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-06-01T10:00:00Z"));
+
+    @Test
+    void remembersQueriesWithoutResultsForTheTtl() {
+        GeocodingIndex index = index(10);
+        assertNull(index.search("Atlantis", 10));
+
+        index.learn("Atlantis", List.of());
+        assertEquals(List.of(), index.search(" atlantis ", 10));
+        clock.advance(Duration.ofHours(1));
+        assertNull(index.search("Atlantis", 10));
+
+        // Found after all: the results replace the negative entry
+        index.learn("Atlantis", List.of(place("Atlantis, Florida")));
+        assertEquals(1, index.search("Atlantis", 10).size());
+    }
+
+    @Test
+    void dropsOldestQueriesAndTheirPlacesBeyondTheCap() {
+        GeocodingIndex index = index(2);
+        GeocodingService.LocationInfo zurich = place("Zürich, Schweiz");
+        index.learn("zurich", List.of(zurich));
+        index.learn("zuerich", List.of(zurich));
+        index.learn("bern", List.of(place("Bern, Schweiz")));
+
+        assertNull(index.search("zurich", 10));
+        // Still referred to by the newer query
+        assertEquals(List.of(zurich), index.search("zuerich", 10));
+        assertEquals(List.of(zurich), index.suggest("zur", 10));
+
+        index.learn("basel", List.of(place("Basel, Schweiz")));
+        assertNull(index.search("zuerich", 10));
+        assertEquals(List.of(), index.suggest("zur", 10));
+        assertEquals(List.of(), index.suggest("zurih", 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void compactsTheFileToTheIndexedQueries() throws Exception {
+        GeocodingIndex index = index(2);
+        for (int i = 0; i < 5; i++) {
+            index.learn("place " + i, List.of(place("Place " + i + ", Somewhere")));
+            awaitLines(i < 4 ? i + 1 : 2);
+        }
+
+        GeocodingIndex reloaded = index(2);
+        reloaded.load();
+        assertNull(reloaded.search("place 2", 10));
+        assertEquals(1, reloaded.search("place 3", 10).size());
+        assertEquals(1, reloaded.search("place 4", 10).size());
+    }
+
+    private GeocodingIndex index(int maxQueries) {
+        return new GeocodingIndex(new ObjectMapper(), directory.resolve("index.jsonl").toString(), maxQueries,
+                Duration.ofMinutes(30), new SimpleMeterRegistry(), clock);
+    }
+
+    // Appends run in the background
+    private void awaitLines(int expected) throws IOException, InterruptedException {
+        Path file = directory.resolve("index.jsonl");
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (Files.exists(file) && Files.readAllLines(file).size() == expected) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        assertTrue(Files.exists(file), "index file not written");
+        assertEquals(expected, Files.readAllLines(file).size());
+    }
+
+    private static GeocodingService.LocationInfo place(String displayName) {
+        return new GeocodingService.LocationInfo(displayName, 47.0, 8.0, "city");
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
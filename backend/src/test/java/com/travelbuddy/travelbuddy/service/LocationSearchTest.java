@@ -0,0 +1,184 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.travelbuddy.travelbuddy.model.BoundingBox;
+import com.travelbuddy.travelbuddy.model.Location;
+import com.travelbuddy.travelbuddy.model.Trip;
+import com.travelbuddy.travelbuddy.model.TripStatus;
+import com.travelbuddy.travelbuddy.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the spatial queries behind {@code /nearby} and {@code /nearest} against a brute-force
+ * scan of the same locations, including circles around a pole and across the antimeridian.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(LocationService.class)
+class LocationSearchTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private LocationService locationService;
+
+    private final List<Location> locations = new ArrayList<>();
+    private Trip trip;
+
+    @BeforeEach
+    void createTrip() {
+        User organizer = entityManager.persist(User.builder()
+                .username("organizer").email("organizer@example.com").password("secret").role("USER").build());
+        trip = entityManager.persist(Trip.builder()
+                .title("Everywhere")
+                .destination("Zurich")
+                .startDate(LocalDate.of(2026, 6, 1))
+                .endDate(LocalDate.of(2026, 6, 7))
+                .organizer(organizer)
+                .status(TripStatus.PLANNING)
+                .build());
+    }
+
+    @Test
+    void nearbyPagesFollowDistanceOrder() {
+        Random random = new Random(8);
+        for (int i = 0; i < 150; i++) {
+            add(47.37 + (random.nextDouble() - 0.5) * 0.8, 8.54 + (random.nextDouble() - 0.5) * 1.2);
+        }
+        // Equally distant rows must not repeat or go missing across pages
+        for (int i = 0; i < 10; i++) {
+            add(47.40, 8.60);
+        }
+        flush();
+
+        List<Long> expected = bruteForce(47.37, 8.54, 25).stream().map(Location::getId).toList();
+        assertTrue(expected.size() > 30, "too few locations in range: " + expected.size());
+        List<Long> paged = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            Page<Location> result = locationService.findWithinRadius(47.37, 8.54, 25, PageRequest.of(page, 7));
+            assertEquals(expected.size(), result.getTotalElements());
+            result.forEach(location -> paged.add(location.getId()));
+            if (!result.hasNext()) {
+                break;
+            }
+        }
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(42);
+        // A dense city, a sparse region around it and a few far-off places, so the radius
+        // has to double from one kilometre to thousands
+        for (int i = 0; i < 60; i++) {
+            add(47.37 + (random.nextDouble() - 0.5) * 0.05, 8.54 + (random.nextDouble() - 0.5) * 0.08);
+        }
+        for (int i = 0; i < 40; i++) {
+            add(46 + random.nextDouble() * 3, 6 + random.nextDouble() * 5);
+        }
+        add(40.71, -74.01);
+        add(-33.87, 151.21);
+        add(64.15, -21.94);
+        flush();
+
+        double[][] centres = {{47.37, 8.54}, {47.0, 9.5}, {0.0, 0.0}, {-34.0, 150.0}};
+        for (double[] centre : centres) {
+            for (int k : new int[] {1, 5, 30, 102, 500}) {
+                List<Long> expected = bruteForce(centre[0], centre[1], Double.MAX_VALUE).stream()
+                        .limit(k).map(Location::getId).toList();
+                List<Long> nearest = locationService.findNearest(centre[0], centre[1], k).stream()
+                        .map(Location::getId).toList();
+                assertEquals(expected, nearest, "k=" + k + " around " + centre[0] + ", " + centre[1]);
+            }
+        }
+    }
+
+    @Test
+    void circlesAroundThePoleCoverAllLongitudes() {
+        BoundingBox box = BoundingBox.around(89.95, 10, 20);
+        assertEquals(90.0, box.maxLatitude());
+        assertEquals(-180.0, box.minLongitude());
+        assertEquals(180.0, box.maxLongitude());
+        box = BoundingBox.around(-89.99, 0, 5);
+        assertEquals(-90.0, box.minLatitude());
+        assertEquals(-180.0, box.minLongitude());
+        assertEquals(180.0, box.maxLongitude());
+
+        for (double longitude : new double[] {-180, -90, 0, 90, 179.9}) {
+            add(89.9, longitude);
+        }
+        add(89.5, 10);
+        flush();
+
+        // The five places around the pole are within 20 km, even those on its far side; the sixth is 50 km away
+        assertEquals(5, locationService.findWithinRadius(89.95, 10, 20, PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(ids(bruteForce(89.95, 10, Double.MAX_VALUE)), ids(locationService.findNearest(89.95, 10, 6)));
+    }
+
+    @Test
+    void circlesAcrossTheAntimeridianWrapAround() {
+        BoundingBox box = BoundingBox.around(0, 179.99, 10);
+        assertEquals(-180.0, box.minLongitude());
+        assertEquals(180.0, box.maxLongitude());
+        // Away from the antimeridian the box stays narrow
+        box = BoundingBox.around(0, 179, 10);
+        assertTrue(box.maxLongitude() < 180 && box.minLongitude() > 178.9);
+
+        Location east = add(0.01, -179.99);
+        Location west = add(-0.01, 179.98);
+        add(0, 178);
+        flush();
+
+        List<Long> within = ids(locationService.findWithinRadius(0, 179.99, 10, PageRequest.of(0, 10)).getContent());
+        assertEquals(ids(bruteForce(0, 179.99, 10)), within);
+        assertEquals(List.of(west.getId(), east.getId()), within);
+        assertEquals(List.of(east.getId()), ids(locationService.findNearest(0, -179.995, 1)));
+    }
+
+    private Location add(double latitude, double longitude) {
+        Location location = entityManager.persist(Location.builder()
+                .name("Location " + locations.size()).latitude(latitude).longitude(longitude).trip(trip).build());
+        locations.add(location);
+        return location;
+    }
+
+    private void flush() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // All locations strictly within the radius, nearest first and then by id, like the queries
+    private List<Location> bruteForce(double latitude, double longitude, double radiusKm) {
+        return locations.stream()
+                .filter(location -> distance(latitude, longitude, location) < radiusKm)
+                .sorted(Comparator.comparingDouble((Location location) -> distance(latitude, longitude, location))
+                        .thenComparing(Location::getId))
+                .toList();
+    }
+
+    private static double distance(double latitude, double longitude, Location location) {
+        return BoundingBox.distanceKm(latitude, longitude, location.getLatitude(), location.getLongitude());
+    }
+
+    private static List<Long> ids(List<Location> locations) {
+        return locations.stream().map(Location::getId).toList();
+    }
+}
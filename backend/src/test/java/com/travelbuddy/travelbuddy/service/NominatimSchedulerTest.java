@@ -0,0 +1,139 @@
+package com.travelbuddy.travelbuddy.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Typeahead supersession, merging and the queue limit of {@link NominatimScheduler}. The rate is
+ * so low that only the first request is released during a test; the others stay queued.
+ */
+class NominatimSchedulerTest {
+
+    private static final List<GeocodingService.LocationInfo> ZURICH =
+            List.of(new GeocodingService.LocationInfo("Zurich", 47.37, 8.54, "city"));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NominatimScheduler scheduler = new NominatimScheduler(0.001, 1, 2, meterRegistry);
+    // One sink per request released to the upstream, by key
+    private final Map<String, Sinks.One<List<GeocodingService.LocationInfo>>> started = new LinkedHashMap<>();
+
+    @Test
+    void newerTypeaheadSearchSupersedesTheQueuedOne() {
+        submit("zurich", null);
+        Result zu = submit("zu", "browser-1");
+        Result other = submit("ge", "browser-2");
+        assertEquals(2, scheduler.queuedCount());
+
+        // The next keystroke of the same client completes the previous search empty, and is
+        // accepted although the queue is full since it takes the previous one's place
+        Result zur = submit("zur", "browser-1");
+        assertTrue(zu.completed);
+        assertNull(zu.value);
+        assertEquals(2, scheduler.queuedCount());
+        assertFalse(other.completed);
+        assertEquals(1, counter("superseded"));
+
+        // Repeating the same query keeps waiting for it rather than superseding it
+        Result again = submit("zur", "browser-1");
+        assertFalse(zur.completed);
+        assertFalse(again.completed);
+        assertEquals(1, counter("superseded"));
+        assertEquals(1, counter("merged"));
+        assertEquals(List.of("zurich"), List.copyOf(started.keySet()));
+    }
+
+    @Test
+    void identicalQueriesAreSentOnce() {
+        Result first = submit("zurich", null);
+        Result second = submit("zurich", "browser-1");
+        assertEquals(List.of("zurich"), List.copyOf(started.keySet()));
+        assertEquals(1, counter("merged"));
+
+        started.get("zurich").tryEmitValue(ZURICH);
+        assertEquals(ZURICH, first.value);
+        assertEquals(ZURICH, second.value);
+
+        // A finished query is queued again the next time instead of joining the old request
+        submit("zurich", null);
+        assertEquals(1, scheduler.queuedCount());
+        assertEquals(1, counter("merged"));
+    }
+
+    @Test
+    void rejectsBeyondMaxQueuedUntilAWaiterLeaves() {
+        submit("zurich", null);
+        submit("bern", null);
+        Result waiting = new Result();
+        Disposable cancelled = scheduler.submit("basel", null, () -> request("basel"))
+                .subscribe(waiting::success, waiting::error);
+        assertEquals(2, scheduler.queuedCount());
+
+        // Queued or in flight queries can still be joined
+        submit("bern", "browser-1");
+        assertEquals(1, counter("merged"));
+
+        Result rejected = submit("geneva", null);
+        assertInstanceOf(UpstreamResilience.UpstreamUnavailableException.class, rejected.error);
+        assertEquals(1, counter("rejected"));
+
+        // A cancelled waiter takes its query out of the queue, making room for another
+        cancelled.dispose();
+        assertEquals(1, scheduler.queuedCount());
+        Result accepted = submit("geneva", null);
+        assertNull(accepted.error);
+        assertEquals(2, scheduler.queuedCount());
+        assertEquals(1, counter("rejected"));
+        assertEquals(List.of("zurich"), List.copyOf(started.keySet()));
+    }
+
+    private Result submit(String key, String client) {
+        Result result = new Result();
+        scheduler.submit(key, client, () -> request(key)).subscribe(result::success, result::error, result::complete);
+        return result;
+    }
+
+    private Mono<List<GeocodingService.LocationInfo>> request(String key) {
+        Sinks.One<List<GeocodingService.LocationInfo>> sink = Sinks.one();
+        started.put(key, sink);
+        return sink.asMono();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter("travelbuddy.geocoding.scheduler." + name).count();
+    }
+
+    // What a subscriber has received so far
+    private static final class Result {
+
+        private List<GeocodingService.LocationInfo> value;
+        private Throwable error;
+        private boolean completed;
+
+        void success(List<GeocodingService.LocationInfo> value) {
+            this.value = value;
+        }
+
+        void error(Throwable error) {
+            this.error = error;
+        }
+
+        void complete() {
+            completed = true;
+        }
+    }
+}
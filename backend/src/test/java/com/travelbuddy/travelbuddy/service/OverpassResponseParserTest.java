@@ -0,0 +1,129 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Feeds an Overpass response to {@link OverpassResponseParser} split at every possible position,
+ * including inside field names, numbers and multi-byte characters.
+ */
+class OverpassResponseParserTest {
+
+    private static final String RESPONSE = """
+            {
+              "version": 0.6,
+              "osm3s": {"timestamp_osm_base": "2026-06-01T10:00:00Z"},
+              "elements": [
+                {"type": "node", "id": 1, "lat": 47.3769, "lon": 8.5417,
+                 "tags": {"amenity": "cafe", "name": "Café Schöneck", "website": "https://schoeneck.example",
+                          "phone": "+41 44 000 00 00", "opening_hours": "Mo-Fr 07:00-18:00"}},
+                {"type": "node", "id": 2, "lat": 47.38, "lon": 8.54},
+                {"type": "way", "id": 3, "center": {"lat": 47.3717, "lon": 8.5423},
+                 "nodes": [4, 5, 6], "tags": {"tourism": "museum", "name": "Landesmuseum"}},
+                {"type": "relation", "id": 7, "members": [{"type": "way", "ref": 3, "role": "outer"}],
+                 "tags": {"leisure": "park"}},
+                {"type": "node", "id": 8, "lat": -33.8568, "lon": 151.2153,
+                 "tags": {"tourism": "attraction", "amenity": "theatre"}}
+              ]
+            }
+            """;
+
+    private final PoiCategoryRegistry categoryRegistry = new PoiCategoryRegistry(new MockEnvironment()
+            .withProperty("travelbuddy.poi.categories.amenity", "restaurant,cafe,theatre")
+            .withProperty("travelbuddy.poi.categories.tourism", "museum,attraction")
+            .withProperty("travelbuddy.poi.categories.leisure", "park"));
+
+    @Test
+    void parsesElementsWithCoordinatesAndTags() throws IOException {
+        List<OverpassService.PointOfInterest> pois = parse(RESPONSE.getBytes(StandardCharsets.UTF_8), Integer.MAX_VALUE);
+        // The untagged node and the relation without a centre are skipped
+        assertEquals(List.of("Café Schöneck", "Landesmuseum", "Unnamed"), names(pois));
+
+        OverpassService.PointOfInterest cafe = pois.get(0);
+        assertEquals(47.3769, cafe.getLatitude());
+        assertEquals(8.5417, cafe.getLongitude());
+        assertEquals("https://schoeneck.example", cafe.getWebsite());
+        assertEquals("+41 44 000 00 00", cafe.getPhone());
+        assertEquals(Set.of("cafe"), cafe.getCategories());
+        // A way is located by its centre, not by its nodes
+        assertEquals(47.3717, pois.get(1).getLatitude());
+        assertEquals(8.5423, pois.get(1).getLongitude());
+        assertEquals(Set.of("attraction", "theatre"), pois.get(2).getCategories());
+    }
+
+    @Test
+    void resultDoesNotDependOnWhereTheBodyIsSplit() throws IOException {
+        byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        String expected = describe(parse(body, Integer.MAX_VALUE));
+        for (int split = 1; split < body.length; split++) {
+            List<OverpassService.PointOfInterest> pois = new ArrayList<>();
+            OverpassResponseParser parser = new OverpassResponseParser(new JsonFactory(), categoryRegistry);
+            pois.addAll(parser.feed(buffer(Arrays.copyOfRange(body, 0, split))));
+            pois.addAll(parser.feed(buffer(Arrays.copyOfRange(body, split, body.length))));
+            pois.addAll(parser.endOfInput());
+            assertEquals(expected, describe(pois), "split at byte " + split);
+        }
+        for (int chunkSize : new int[] {1, 2, 3, 7, 64}) {
+            assertEquals(expected, describe(parse(body, chunkSize)), "chunks of " + chunkSize);
+        }
+    }
+
+    @Test
+    void returnsEachElementAsSoonAsItIsComplete() throws IOException {
+        byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        int insideFirst = indexOf("\"opening_hours\"");
+        int secondElement = indexOf("{\"type\": \"node\", \"id\": 2");
+
+        OverpassResponseParser parser = new OverpassResponseParser(new JsonFactory(), categoryRegistry);
+        assertEquals(List.of(), parser.feed(buffer(Arrays.copyOfRange(body, 0, insideFirst))));
+        assertEquals(List.of("Café Schöneck"), names(parser.feed(buffer(Arrays.copyOfRange(body, insideFirst, secondElement)))));
+        assertEquals(List.of("Landesmuseum", "Unnamed"),
+                names(parser.feed(buffer(Arrays.copyOfRange(body, secondElement, body.length)))));
+        assertEquals(List.of(), parser.endOfInput());
+    }
+
+    private List<OverpassService.PointOfInterest> parse(byte[] body, int chunkSize) throws IOException {
+        OverpassResponseParser parser = new OverpassResponseParser(new JsonFactory(), categoryRegistry);
+        List<OverpassService.PointOfInterest> pois = new ArrayList<>();
+        for (int start = 0; start < body.length; start += chunkSize) {
+            pois.addAll(parser.feed(buffer(Arrays.copyOfRange(body, start, (int) Math.min(body.length, (long) start + chunkSize)))));
+        }
+        pois.addAll(parser.endOfInput());
+        return pois;
+    }
+
+    private static DataBuffer buffer(byte[] bytes) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+    }
+
+    // Byte offset of a text in the UTF-8 encoded response
+    private static int indexOf(String text) {
+        return RESPONSE.substring(0, RESPONSE.indexOf(text)).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static List<String> names(List<OverpassService.PointOfInterest> pois) {
+        return pois.stream().map(OverpassService.PointOfInterest::getName).toList();
+    }
+
+    private static String describe(List<OverpassService.PointOfInterest> pois) {
+        return pois.stream()
+                .map(poi -> String.join("|", poi.getName(), String.valueOf(poi.getLatitude()), String.valueOf(poi.getLongitude()),
+                        poi.getType(), poi.getWebsite(), poi.getPhone(), String.valueOf(new TreeSet<>(poi.getCategories()))))
+                .toList()
+                .toString();
+    }
+}
@@ -0,0 +1,132 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelbuddy.travelbuddy.JWT.JWTUtil;
+import com.travelbuddy.travelbuddy.JWT.PrincipalCache;
+import com.travelbuddy.travelbuddy.controller.UserController;
+import com.travelbuddy.travelbuddy.dto.LoginDto;
+import com.travelbuddy.travelbuddy.mapper.BuddyMapper;
+import com.travelbuddy.travelbuddy.mapper.UserMapper;
+import com.travelbuddy.travelbuddy.model.User;
+import com.travelbuddy.travelbuddy.repository.BuddyRepository;
+import com.travelbuddy.travelbuddy.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Saturation of the {@link PasswordHashingService} pool: with one thread and one queue slot, a
+ * third concurrent hash is rejected at once and the login endpoint answers 503.
+ */
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Hashing blocks until the test releases it
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final PasswordHashingService service = new PasswordHashingService(new BlockingEncoder(), 1, 1, meterRegistry);
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void rejectsOnceThreadsAndQueueAreFull() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("second"));
+        awaitQueued(1);
+
+        long before = System.nanoTime();
+        assertThrows(PasswordHashingService.PasswordHashingRejectedException.class, () -> service.matches("third", "hash:third"));
+        // Rejected without waiting for a thread
+        assertTrue(System.nanoTime() - before < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, timerCount("matches", "rejected"));
+
+        // The accepted calls are unaffected and the pool takes work again once they are done
+        release.countDown();
+        assertEquals("hash:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:second", queued.get(5, TimeUnit.SECONDS));
+        assertTrue(service.matches("third", "hash:third"));
+        assertEquals(2, timerCount("encode", "success"));
+        assertEquals(1, timerCount("matches", "success"));
+    }
+
+    @Test
+    void loginAnswers503WithRetryAfterWhenSaturated() throws Exception {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("traveller")).thenReturn(Optional.of(User.builder()
+                .username("traveller").email("traveller@example.com").password("hash:secret").role("USER").build()));
+        UserService userService = new UserService(userRepository, mock(BuddyRepository.class), new BlockingEncoder(), service);
+        UserController controller = new UserController(userService, mock(UserMapper.class), mock(BuddyMapper.class),
+                mock(JWTUtil.class), new ObjectMapper(), mock(PrincipalCache.class), mock(RefreshTokenService.class));
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("second"));
+        awaitQueued(1);
+
+        ResponseEntity<?> response = controller.login(new LoginDto("traveller", "secret"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertFalse(running.isDone());
+
+        release.countDown();
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        for (int attempt = 0; attempt < 250; attempt++) {
+            if (meterRegistry.get("travelbuddy.password.hashing.queued").gauge().value() == expected) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("hashing queue never reached " + expected);
+    }
+
+    private long timerCount(String operation, String outcome) {
+        return meterRegistry.get("travelbuddy.password.hashing")
+                .tag("operation", operation).tag("outcome", outcome).timer().count();
+    }
+
+    // "Hashes" by prefixing, after waiting for the test to release it
+    private final class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.travelbuddy.travelbuddy.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The {@code max-pois} bound of {@link PoiTileCache}: what each tile counts against it and which
+ * tiles are evicted to stay within it.
+ */
+class PoiTileCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PoiTileCache cache = new PoiTileCache(6, Duration.ofHours(12), 10, Duration.ofDays(7), meterRegistry);
+
+    @Test
+    void countsPoisAndReplacedTilesOnlyOnce() {
+        cache.put("u0qj", "cafe", pois(4));
+        cache.put("u0qj", "museum", pois(3));
+        assertEquals(7, cache.poiCount());
+
+        // Refreshing a tile replaces its points of interest
+        cache.put("u0qj", "cafe", pois(2));
+        assertEquals(5, cache.poiCount());
+        assertEquals(2, cache.size());
+        assertEquals(0, evictions());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedTilesBeyondTheBound() {
+        cache.put("a", "cafe", pois(4));
+        cache.put("b", "cafe", pois(4));
+        // Reading a tile makes it the most recently used
+        assertNotNull(cache.get("a", "cafe"));
+
+        cache.put("c", "cafe", pois(4));
+        assertNull(cache.get("b", "cafe"));
+        assertNotNull(cache.get("a", "cafe"));
+        assertNotNull(cache.get("c", "cafe"));
+        assertEquals(8, cache.poiCount());
+        assertEquals(1, evictions());
+    }
+
+    @Test
+    void emptyTilesCountAsOne() {
+        for (int i = 0; i < 10; i++) {
+            cache.put("sea" + i, "cafe", List.of());
+        }
+        assertEquals(10, cache.size());
+        assertEquals(0, cache.poiCount());
+
+        // The eleventh empty tile pushes the oldest out
+        cache.put("sea10", "cafe", List.of());
+        assertEquals(10, cache.size());
+        assertNull(cache.get("sea0", "cafe"));
+        assertEquals(List.of(), cache.get("sea10", "cafe"));
+
+        // A full tile pushes out as many empty ones as it has points of interest
+        cache.put("city", "cafe", pois(6));
+        assertEquals(5, cache.size());
+        assertEquals(6, cache.poiCount());
+        assertEquals(7, evictions());
+    }
+
+    @Test
+    void keepsATileLargerThanTheBoundAlone() {
+        cache.put("a", "cafe", pois(3));
+        cache.put("b", "cafe", pois(15));
+        assertEquals(1, cache.size());
+        assertEquals(15, cache.poiCount());
+        assertEquals(15, cache.get("b", "cafe").size());
+
+        cache.put("c", "cafe", pois(1));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.poiCount());
+    }
+
+    @Test
+    void expiredTilesAreOnlyServedAsStale() {
+        PoiTileCache expiring = new PoiTileCache(6, Duration.ZERO, 10, Duration.ofDays(7), new SimpleMeterRegistry());
+        expiring.put("a", "cafe", pois(2));
+        assertNull(expiring.get("a", "cafe"));
+        assertEquals(2, expiring.getStale("a", "cafe").size());
+        // Still counted against the bound until evicted
+        assertEquals(2, expiring.poiCount());
+    }
+
+    private double evictions() {
+        return meterRegistry.counter("travelbuddy.poi.cache.evictions").count();
+    }
+
+    private static List<OverpassService.PointOfInterest> pois(int count) {
+        List<OverpassService.PointOfInterest> pois = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            pois.add(new OverpassService.PointOfInterest("Place " + i, 47.37, 8.54, "cafe", null, null));
+        }
+        return pois;
+    }
+}
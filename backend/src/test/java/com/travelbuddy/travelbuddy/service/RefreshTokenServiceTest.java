@@ -0,0 +1,155 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.travelbuddy.travelbuddy.model.User;
+import com.travelbuddy.travelbuddy.repository.RefreshTokenRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reuse of a refresh token: a token replaced by rotation is theft once the grace period is over,
+ * while a token revoked at logout or by a password change is just rejected.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-06-01T10:00:00Z"));
+    private RefreshTokenService service;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        service = new RefreshTokenService(refreshTokenRepository, Duration.ofDays(30), clock);
+        user = entityManager.persist(User.builder()
+                .username("traveller").email("traveller@example.com").password("secret").role("USER").build());
+    }
+
+    @Test
+    void rotatedTokenIsReplacedOnce() {
+        String token = service.issue(user);
+        Optional<RefreshTokenService.Rotation> rotation = rotate(token);
+        assertTrue(rotation.isPresent());
+        assertEquals(user.getId(), rotation.get().user().getId());
+        // The replacement works in turn
+        assertTrue(rotate(rotation.get().refreshToken()).isPresent());
+    }
+
+    @Test
+    void reuseOfRotatedTokenWithinGraceIsConcurrentRefresh() {
+        String token = service.issue(user);
+        String replacement = rotate(token).orElseThrow().refreshToken();
+
+        clock.advance(Duration.ofSeconds(5));
+        assertThrows(RefreshTokenService.RecentlyRotatedException.class, () -> rotate(token));
+        // Nothing was revoked: the other tab's token still works
+        assertTrue(rotate(replacement).isPresent());
+    }
+
+    @Test
+    void reuseOfRotatedTokenAfterGraceRevokesEverything() {
+        String token = service.issue(user);
+        String replacement = rotate(token).orElseThrow().refreshToken();
+        String otherDevice = service.issue(user);
+
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(rotate(token).isEmpty());
+        assertTrue(rotate(replacement).isEmpty());
+        assertTrue(rotate(otherDevice).isEmpty());
+    }
+
+    @Test
+    void tokenRevokedAtLogoutIsRejectedWithoutRevokingOthers() {
+        String token = service.issue(user);
+        String otherDevice = service.issue(user);
+        service.revoke(token);
+        flush();
+
+        // Neither a concurrent refresh nor theft, at any time after the logout
+        assertTrue(rotate(token).isEmpty());
+        clock.advance(Duration.ofMinutes(1));
+        assertTrue(rotate(token).isEmpty());
+        assertTrue(rotate(otherDevice).isPresent());
+    }
+
+    @Test
+    void tokensRevokedByPasswordChangeAreRejectedWithoutConflict() {
+        String token = service.issue(user);
+        service.revokeAll(user);
+        flush();
+
+        assertTrue(rotate(token).isEmpty());
+        clock.advance(Duration.ofMinutes(1));
+        assertTrue(rotate(token).isEmpty());
+        // Logging in again still works
+        assertTrue(rotate(service.issue(user)).isPresent());
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = service.issue(user);
+        clock.advance(Duration.ofDays(31));
+        assertTrue(rotate(token).isEmpty());
+    }
+
+    // Each call of the service runs in its own transaction in the application
+    private Optional<RefreshTokenService.Rotation> rotate(String token) {
+        Optional<RefreshTokenService.Rotation> rotation = service.rotate(token);
+        flush();
+        return rotation;
+    }
+
+    private void flush() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
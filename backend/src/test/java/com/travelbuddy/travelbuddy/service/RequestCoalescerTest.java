@@ -0,0 +1,87 @@
+package com.travelbuddy.travelbuddy.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Coalescing of concurrent upstream lookups by {@link RequestCoalescer}, with upstream requests
+ * that complete only when the test says so.
+ */
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(meterRegistry);
+    private final AtomicInteger requests = new AtomicInteger();
+    private Sinks.One<String> upstream = Sinks.one();
+
+    @Test
+    void concurrentCallersShareOneRequest() throws Exception {
+        CompletableFuture<String> first = coalescer.coalesce("nominatim", "zurich", this::request).toFuture();
+        CompletableFuture<String> second = coalescer.coalesce("nominatim", "zurich", this::request).toFuture();
+        assertEquals(1, requests.get());
+        assertEquals(1, coalescer.inFlightCount());
+        assertFalse(first.isDone());
+
+        upstream.tryEmitValue("Zürich");
+        assertEquals("Zürich", first.get());
+        assertEquals("Zürich", second.get());
+        assertEquals(1, meterRegistry.counter("travelbuddy.upstream.coalesced", "upstream", "nominatim").count());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    void differentKeysAndUpstreamsAreNotShared() {
+        coalescer.coalesce("nominatim", "zurich", this::request).subscribe();
+        coalescer.coalesce("nominatim", "bern", this::request).subscribe();
+        coalescer.coalesce("overpass", "zurich", this::request).subscribe();
+        assertEquals(3, requests.get());
+        assertEquals(3, coalescer.inFlightCount());
+    }
+
+    @Test
+    void resultIsNotKeptAfterTheFlight() {
+        upstream.tryEmitValue("first");
+        assertEquals("first", coalescer.coalesce("nominatim", "zurich", this::request).block());
+
+        upstream = Sinks.one();
+        upstream.tryEmitValue("second");
+        assertEquals("second", coalescer.coalesce("nominatim", "zurich", this::request).block());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void errorReachesEveryCallerAndIsNotKept() {
+        CompletableFuture<String> first = coalescer.coalesce("nominatim", "zurich", this::request).toFuture();
+        CompletableFuture<String> second = coalescer.coalesce("nominatim", "zurich", this::request).toFuture();
+
+        IllegalStateException failure = new IllegalStateException("upstream down");
+        upstream.tryEmitError(failure);
+        assertSame(failure, assertThrows(Exception.class, first::join).getCause());
+        assertSame(failure, assertThrows(Exception.class, second::join).getCause());
+        assertEquals(1, requests.get());
+        assertEquals(0, coalescer.inFlightCount());
+
+        // The next caller tries again
+        upstream = Sinks.one();
+        upstream.tryEmitValue("Zürich");
+        assertEquals("Zürich", coalescer.coalesce("nominatim", "zurich", this::request).block());
+        assertEquals(2, requests.get());
+    }
+
+    private Mono<String> request() {
+        requests.incrementAndGet();
+        return upstream.asMono();
+    }
+}
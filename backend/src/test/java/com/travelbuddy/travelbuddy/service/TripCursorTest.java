@@ -0,0 +1,138 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.travelbuddy.travelbuddy.model.Location;
+import com.travelbuddy.travelbuddy.model.Trip;
+import com.travelbuddy.travelbuddy.model.TripStatus;
+import com.travelbuddy.travelbuddy.model.User;
+import com.travelbuddy.travelbuddy.repository.TripRepository;
+import com.travelbuddy.travelbuddy.repository.UserRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Keyset pagination of trips with {@link TripService#findAfter}. The test runs outside a
+ * transaction, like a streaming response does, so the mapper only sees lazy associations
+ * if findAfter maps inside its own transaction.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(TripService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TripCursorTest {
+
+    @Autowired
+    private TripService tripService;
+    @Autowired
+    private TripRepository tripRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User organizer;
+    private List<Long> ids;
+
+    @BeforeEach
+    void createTrips() {
+        organizer = userRepository.save(User.builder()
+                .username("organizer").email("organizer@example.com").password("secret").role("USER").build());
+        ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(createTrip("Trip " + i).getId());
+        }
+    }
+
+    @AfterEach
+    void deleteTrips() {
+        tripRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void pagesVisitEveryTripOnceInIdOrder() {
+        List<String> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        Long cursor = null;
+        List<TripSummary> page;
+        do {
+            page = tripService.findAfter(cursor, 3, TripSummary::of);
+            pageSizes.add(page.size());
+            page.forEach(trip -> seen.add(trip.title()));
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).id();
+            }
+        } while (page.size() == 3);
+
+        assertEquals(List.of(3, 3, 1), pageSizes);
+        assertEquals(List.of("Trip 0", "Trip 1", "Trip 2", "Trip 3", "Trip 4", "Trip 5", "Trip 6"), seen);
+    }
+
+    @Test
+    void mapperSeesLazyAssociations() {
+        List<TripSummary> trips = tripService.findAfter(null, 10, TripSummary::of);
+        assertEquals(7, trips.size());
+        for (TripSummary trip : trips) {
+            assertEquals(1, trip.participants());
+            assertEquals(2, trip.locations());
+        }
+    }
+
+    @Test
+    void cursorIsStableWhileTripsAreAddedAndDeleted() {
+        List<TripSummary> first = tripService.findAfter(null, 3, TripSummary::of);
+        assertEquals(ids.subList(0, 3), first.stream().map(TripSummary::id).toList());
+
+        // A trip of the next page goes away and a new one is created meanwhile
+        tripRepository.deleteById(ids.get(3));
+        Long created = createTrip("Trip 7").getId();
+
+        List<Long> rest = tripService.findAfter(first.get(2).id(), 10, Trip::getId);
+        List<Long> expected = new ArrayList<>(ids.subList(4, 7));
+        expected.add(created);
+        assertEquals(expected, rest);
+        assertEquals(List.of(), tripService.findAfter(created, 10, Trip::getId));
+    }
+
+    private Trip createTrip(String title) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Trip trip = Trip.builder()
+                    .title(title)
+                    .destination("Zurich")
+                    .startDate(LocalDate.of(2026, 6, 1))
+                    .endDate(LocalDate.of(2026, 6, 7))
+                    .organizer(organizer)
+                    .status(TripStatus.PLANNING)
+                    .build();
+            trip.addParticipant(organizer);
+            for (int j = 0; j < 2; j++) {
+                trip.getLocations().add(Location.builder()
+                        .name("Stop " + j).latitude(47.37 + j).longitude(8.54 + j).trip(trip).build());
+            }
+            return tripRepository.save(trip);
+        });
+    }
+
+    private record TripSummary(Long id, String title, int participants, int locations) {
+
+        static TripSummary of(Trip trip) {
+            return new TripSummary(trip.getId(), trip.getTitle(), trip.getParticipants().size(), trip.getLocations().size());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.travelbuddy.travelbuddy.dto.TripDto;
+import com.travelbuddy.travelbuddy.mapper.LocationMapperImpl;
+import com.travelbuddy.travelbuddy.mapper.TripMapper;
+import com.travelbuddy.travelbuddy.mapper.TripMapperImpl;
+import com.travelbuddy.travelbuddy.model.Location;
+import com.travelbuddy.travelbuddy.model.Trip;
+import com.travelbuddy.travelbuddy.model.TripStatus;
+import com.travelbuddy.travelbuddy.model.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guards the number of SQL statements behind the trip list endpoints. Each list is loaded the way
+ * TripController does it (service call, then TripMapper on every trip) and must take a fixed number
+ * of statements however many trips it holds: one for the trips with their organizer and
+ * participants, one for the batch of locations, plus the user lookup where the list is per user.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@Import({TripService.class, TripMapperImpl.class, LocationMapperImpl.class})
+class TripQueryCountTest {
+
+    private static final int TRIPS = 12;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TripService tripService;
+    @Autowired
+    private TripMapper tripMapper;
+
+    private Statistics statistics;
+    private User organizer;
+    private User participant;
+
+    @BeforeEach
+    void createTrips() {
+        organizer = entityManager.persist(user("organizer"));
+        participant = entityManager.persist(user("participant"));
+        User other = entityManager.persist(user("other"));
+        for (int i = 0; i < TRIPS; i++) {
+            Trip trip = Trip.builder()
+                    .title("Trip " + i)
+                    .destination("Zurich")
+                    .startDate(LocalDate.of(2026, 6, 1))
+                    .endDate(LocalDate.of(2026, 6, 7))
+                    .organizer(organizer)
+                    .status(TripStatus.PLANNING)
+                    .build();
+            trip.addParticipant(participant);
+            trip.addParticipant(other);
+            for (int j = 0; j < 2; j++) {
+                trip.getLocations().add(Location.builder()
+                        .name("Stop " + j).latitude(47.37 + j).longitude(8.54 + j).trip(trip).build());
+            }
+            entityManager.persist(trip);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void allTrips() {
+        List<TripDto> trips = load(() -> tripService.findAll());
+        assertComplete(trips);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void tripsByOrganizer() {
+        List<TripDto> trips = load(() -> tripService.findByOrganizer(organizer.getId()));
+        assertComplete(trips);
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void tripsByParticipant() {
+        List<TripDto> trips = load(() -> tripService.findByParticipant(participant.getId()));
+        assertComplete(trips);
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void tripsByStatus() {
+        List<TripDto> trips = load(() -> tripService.findByStatus(TripStatus.PLANNING));
+        assertComplete(trips);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private List<TripDto> load(Supplier<List<Trip>> query) {
+        return query.get().stream().map(tripMapper::toDto).toList();
+    }
+
+    // Filtering by participant must neither drop the other participants nor duplicate trips
+    private static void assertComplete(List<TripDto> trips) {
+        assertEquals(TRIPS, trips.size());
+        for (TripDto trip : trips) {
+            assertEquals("organizer", trip.getOrganizerUsername());
+            assertEquals(2, trip.getParticipantUsernames().size());
+            assertEquals(2, trip.getLocations().size());
+        }
+    }
+
+    private static User user(String name) {
+        return User.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .password("secret")
+                .role("USER")
+                .build();
+    }
+}
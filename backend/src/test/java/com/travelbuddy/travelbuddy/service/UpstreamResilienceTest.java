@@ -0,0 +1,220 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link UpstreamResilience} against a local HTTP server that answers with scripted statuses.
+ */
+class UpstreamResilienceTest {
+
+    private static final String UPSTREAM = "stub";
+
+    private HttpServer server;
+    private WebClient webClient;
+    // Statuses of the next responses; once drained, every response has the default status
+    private final ConcurrentLinkedQueue<Integer> scripted = new ConcurrentLinkedQueue<>();
+    private volatile int defaultStatus = 200;
+    private volatile long delayMillis;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("travelbuddy.upstream.default.timeout", "PT2S")
+            .withProperty("travelbuddy.upstream.default.deadline", "PT5S")
+            .withProperty("travelbuddy.upstream.default.retries", "0")
+            .withProperty("travelbuddy.upstream.default.backoff", "PT0.01S")
+            .withProperty("travelbuddy.upstream.default.failure-threshold", "3")
+            .withProperty("travelbuddy.upstream.default.open-duration", "PT0.3S");
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            Integer next = scripted.poll();
+            int status = next != null ? next : defaultStatus;
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("status " + status).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        webClient = WebClient.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void retriesTransientFailuresOfIdempotentRequests() {
+        environment.setProperty("travelbuddy.upstream.stub.retries", "2");
+        scripted.add(503);
+        scripted.add(500);
+        UpstreamResilience resilience = resilience();
+
+        assertEquals("status 200", resilience.call(UPSTREAM, true, this::get).block());
+        assertEquals(3, requests.get());
+        assertEquals(2, meterRegistry.counter("travelbuddy.upstream.retries", "upstream", UPSTREAM).count());
+    }
+
+    @Test
+    void doesNotRetryNonIdempotentRequestsOrClientErrors() {
+        environment.setProperty("travelbuddy.upstream.stub.retries", "2");
+        UpstreamResilience resilience = resilience();
+
+        scripted.add(503);
+        assertThrows(UpstreamResilience.UpstreamUnavailableException.class,
+                () -> resilience.call(UPSTREAM, false, this::get).block());
+        assertEquals(1, requests.get());
+
+        // A 404 is the upstream's answer, not a sign of trouble: passed through, not retried
+        scripted.add(404);
+        assertInstanceOf(WebClientResponseException.NotFound.class,
+                assertThrows(WebClientResponseException.class, () -> resilience.call(UPSTREAM, true, this::get).block()));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void opensCircuitAfterConsecutiveFailuresAndRecoversThroughProbe() throws InterruptedException {
+        defaultStatus = 500;
+        UpstreamResilience resilience = resilience();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(UpstreamResilience.UpstreamUnavailableException.class,
+                    () -> resilience.call(UPSTREAM, true, this::get).block());
+        }
+        assertEquals(3, requests.get());
+        assertEquals(UpstreamResilience.CircuitBreaker.State.OPEN.ordinal(), circuitState());
+
+        // Open: rejected without reaching the upstream
+        assertThrows(UpstreamResilience.UpstreamUnavailableException.class,
+                () -> resilience.call(UPSTREAM, true, this::get).block());
+        assertEquals(3, requests.get());
+        assertEquals(1, meterRegistry.counter("travelbuddy.upstream.calls", "upstream", UPSTREAM, "outcome", "rejected").count());
+
+        // Half-open: a failed probe opens the circuit again at once
+        Thread.sleep(400);
+        assertThrows(UpstreamResilience.UpstreamUnavailableException.class,
+                () -> resilience.call(UPSTREAM, true, this::get).block());
+        assertEquals(4, requests.get());
+        assertEquals(UpstreamResilience.CircuitBreaker.State.OPEN.ordinal(), circuitState());
+
+        // Half-open: a successful probe closes it
+        defaultStatus = 200;
+        Thread.sleep(400);
+        assertEquals("status 200", resilience.call(UPSTREAM, true, this::get).block());
+        assertEquals(UpstreamResilience.CircuitBreaker.State.CLOSED.ordinal(), circuitState());
+        assertEquals("status 200", resilience.call(UPSTREAM, true, this::get).block());
+        assertEquals(6, requests.get());
+    }
+
+    @Test
+    void fallsBackToStaleResultWhenUpstreamFails() {
+        defaultStatus = 503;
+        UpstreamResilience resilience = resilience();
+
+        String result = resilience.withStale(UPSTREAM, resilience.call(UPSTREAM, true, this::get), () -> "stale").block();
+        assertEquals("stale", result);
+        assertEquals(1, meterRegistry.counter("travelbuddy.upstream.stale", "upstream", UPSTREAM).count());
+
+        // Without a stale result the failure surfaces
+        assertThrows(UpstreamResilience.UpstreamUnavailableException.class,
+                () -> resilience.withStale(UPSTREAM, resilience.call(UPSTREAM, true, this::get), () -> null).block());
+
+        // A fresh result is preferred over the stale one
+        defaultStatus = 200;
+        assertEquals("status 200",
+                resilience.withStale(UPSTREAM, resilience.call(UPSTREAM, true, this::get), () -> "stale").block());
+    }
+
+    @Test
+    void mapsMissedDeadlineToServiceUnavailable() {
+        environment.setProperty("travelbuddy.upstream.stub.retries", "5");
+        environment.setProperty("travelbuddy.upstream.stub.timeout", "PT0.2S");
+        environment.setProperty("travelbuddy.upstream.stub.deadline", "PT0.5S");
+        delayMillis = 1000;
+        UpstreamResilience resilience = resilience();
+
+        long started = System.nanoTime();
+        UpstreamResilience.UpstreamUnavailableException e = assertThrows(UpstreamResilience.UpstreamUnavailableException.class,
+                () -> resilience.call(UPSTREAM, true, this::get).block());
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        // The deadline cuts the retries short
+        assertTrue(elapsedMillis < 900, "took " + elapsedMillis + " ms");
+        ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, status.code());
+    }
+
+    @Test
+    void bulkheadRejectionsNeitherReachTheUpstreamNorOpenTheCircuit() {
+        environment.setProperty("travelbuddy.upstream.stub.max-concurrent", "1");
+        environment.setProperty("travelbuddy.upstream.stub.max-queued", "0");
+        environment.setProperty("travelbuddy.upstream.stub.retries", "2");
+        delayMillis = 300;
+        UpstreamResilience resilience = resilience();
+
+        CompletableFuture<String> slow = resilience.call(UPSTREAM, true, this::get).toFuture();
+        for (int i = 0; i < 3; i++) {
+            UpstreamResilience.UpstreamUnavailableException e = assertThrows(UpstreamResilience.UpstreamUnavailableException.class,
+                    () -> resilience.call(UPSTREAM, true, this::get).block());
+            assertTrue(e.getMessage().contains("bulkhead"), e.getMessage());
+        }
+        assertEquals("status 200", slow.join());
+        assertEquals(1, requests.get());
+        assertEquals(0, meterRegistry.counter("travelbuddy.upstream.retries", "upstream", UPSTREAM).count());
+        assertEquals(3, meterRegistry.counter("travelbuddy.upstream.bulkhead.rejected", "upstream", UPSTREAM).count());
+        assertEquals(UpstreamResilience.CircuitBreaker.State.CLOSED.ordinal(), circuitState());
+    }
+
+    private UpstreamResilience resilience() {
+        return new UpstreamResilience(environment, meterRegistry);
+    }
+
+    private Mono<String> get() {
+        return webClient.get().uri("/").retrieve().bodyToMono(String.class);
+    }
+
+    private double circuitState() {
+        return meterRegistry.get("travelbuddy.upstream.circuit.state").tag("upstream", UPSTREAM).gauge().value();
+    }
+}
@@ -0,0 +1,144 @@
+package com.travelbuddy.travelbuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelbuddy.travelbuddy.dto.WeatherForecastColumnsDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Multi-location forecasts of {@link WeatherService} against a stubbed Open-Meteo that answers
+ * every coordinate with a forecast whose current temperature is its latitude, and
+ * {@link WeatherService#clipToDates}.
+ */
+class WeatherServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Tiles of one degree, so point (i.2, 0.2) lies in tile (i, 0) with its centre at (i.5, 0.5)
+    private final WeatherForecastCache cache = new WeatherForecastCache(1.0, 100, 5, Duration.ofHours(6), meterRegistry);
+    // Latitude parameter of every request sent to Open-Meteo
+    private final List<String> requests = new ArrayList<>();
+    private final WeatherService weatherService = new WeatherService(
+            WebClient.builder().exchangeFunction(request -> {
+                String latitudes = UriComponentsBuilder.fromUri(request.url()).build().getQueryParams().getFirst("latitude");
+                requests.add(latitudes);
+                return Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(forecasts(latitudes))
+                        .build());
+            }),
+            new ObjectMapper(), cache, new RequestCoalescer(meterRegistry),
+            new UpstreamResilience(new MockEnvironment(), meterRegistry), 2, DataSize.ofKilobytes(32));
+
+    @Test
+    void fetchesMissingTilesInBatchesAndMergesThemWithCachedOnes() {
+        cache.put(cache.tileFor(1.2, 0.2), forecast(100));
+
+        List<WeatherForecastColumnsDto> forecasts = weatherService.getForecastColumns(List.of(
+                point(0), point(1), point(2), point(0), point(3), point(4))).block();
+
+        // Four missing tiles, once each, in batches of two
+        assertEquals(List.of("0.5,2.5", "3.5,4.5"), requests);
+        assertEquals(List.of(0.5, 100.0, 2.5, 0.5, 3.5, 4.5), temperatures(forecasts));
+
+        // All of them are cached now
+        assertEquals(List.of(0.5, 100.0, 2.5), temperatures(weatherService.getForecastColumns(
+                List.of(point(0), point(1), point(2))).block()));
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void fetchesAnOddTileAloneAndCachedPointsWithoutRequests() {
+        List<WeatherForecastColumnsDto> forecasts = weatherService.getForecastColumns(List.of(
+                point(0), point(1), point(2))).block();
+        assertEquals(List.of("0.5,1.5", "2.5"), requests);
+        assertEquals(List.of(0.5, 1.5, 2.5), temperatures(forecasts));
+
+        // The single-location path caches the tile like the batch does
+        assertEquals(2.5, weatherService.getForecastColumns(2.2, 0.2).block().getCurrent().getTemperature());
+        assertEquals(List.of(), weatherService.getForecastColumns(List.of()).block());
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void clipsHoursAndDaysToLocalDates() {
+        // Three days in UTC+2, starting at local midnight of 1 June
+        long offset = 7200;
+        long start = LocalDate.of(2026, 6, 1).atStartOfDay().toEpochSecond(ZoneOffset.ofTotalSeconds((int) offset));
+        long[] hours = new long[72];
+        double[] temperatures = new double[72];
+        for (int i = 0; i < hours.length; i++) {
+            hours[i] = start + i * 3600L;
+            temperatures[i] = i;
+        }
+        long[] days = {start, start + 86400, start + 2 * 86400};
+        WeatherForecastColumnsDto forecast = WeatherForecastColumnsDto.builder()
+                .timezoneOffset(offset)
+                .current(WeatherForecastColumnsDto.Current.builder().temperature(21).build())
+                .hourly(WeatherForecastColumnsDto.Hourly.builder().time(hours).temperature(temperatures).build())
+                .daily(WeatherForecastColumnsDto.Daily.builder().time(days).tempMax(new double[] {20, 22, 24}).build())
+                .build();
+
+        WeatherForecastColumnsDto clipped = WeatherService.clipToDates(forecast, LocalDate.of(2026, 6, 2), LocalDate.of(2026, 6, 3));
+        assertEquals(48, clipped.getHourly().getTime().length);
+        assertEquals(start + 86400, clipped.getHourly().getTime()[0]);
+        assertEquals(24.0, clipped.getHourly().getTemperature()[0]);
+        // Columns that were not requested stay null
+        assertNull(clipped.getHourly().getHumidity());
+        assertArrayEquals(new double[] {22, 24}, clipped.getDaily().getTempMax());
+        assertSame(forecast.getCurrent(), clipped.getCurrent());
+        assertEquals(72, forecast.getHourly().getTime().length);
+
+        // A range outside the forecast leaves no hours or days
+        WeatherForecastColumnsDto outside = WeatherService.clipToDates(forecast, LocalDate.of(2026, 6, 10), LocalDate.of(2026, 6, 12));
+        assertEquals(0, outside.getHourly().getTime().length);
+        assertEquals(0, outside.getDaily().getTime().length);
+    }
+
+    private static WeatherService.Coordinates point(int tile) {
+        return new WeatherService.Coordinates(tile + 0.2, 0.2);
+    }
+
+    private static List<Double> temperatures(List<WeatherForecastColumnsDto> forecasts) {
+        return forecasts.stream().map(forecast -> forecast.getCurrent().getTemperature()).toList();
+    }
+
+    private static WeatherForecastColumnsDto forecast(double temperature) {
+        return WeatherForecastColumnsDto.builder()
+                .current(WeatherForecastColumnsDto.Current.builder().temperature(temperature).build())
+                .build();
+    }
+
+    // An object for one coordinate and an array for several, as Open-Meteo answers
+    private static String forecasts(String latitudes) {
+        String[] split = latitudes.split(",");
+        String body = List.of(split).stream()
+                .map(latitude -> "{\"latitude\":" + latitude + ",\"utc_offset_seconds\":0,\"timezone\":\"GMT\","
+                        + "\"current\":{\"time\":0,\"temperature_2m\":" + latitude + "}}")
+                .collect(Collectors.joining(","));
+        return split.length == 1 ? body : "[" + body + "]";
+    }
+}